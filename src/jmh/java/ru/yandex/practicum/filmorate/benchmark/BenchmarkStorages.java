@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.model.film.Mpa;
+import ru.yandex.practicum.filmorate.model.user.User;
+import ru.yandex.practicum.filmorate.storage.DictionaryCache;
+import ru.yandex.practicum.filmorate.storage.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkStorages {
+    private final AnnotationConfigApplicationContext context;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+
+    BenchmarkStorages(String type) {
+        if ("db".equals(type)) {
+            context = new AnnotationConfigApplicationContext(DbConfig.class);
+            filmStorage = context.getBean(FilmStorage.class);
+            userStorage = context.getBean(UserStorage.class);
+        } else {
+            context = null;
+            filmStorage = new InMemoryFilmStorage();
+            userStorage = new InMemoryUserStorage();
+        }
+    }
+
+    FilmStorage getFilmStorage() {
+        return filmStorage;
+    }
+
+    UserStorage getUserStorage() {
+        return userStorage;
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    void close() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    static Film createFilm(int id, int genres) {
+        Mpa mpa = new Mpa();
+        mpa.setId(1 + id % 5);
+        List<Genre> genreList = new ArrayList<>();
+        for (int i = 1; i <= genres; i++) {
+            Genre genre = new Genre();
+            genre.setId(i);
+            genreList.add(genre);
+        }
+        return Film.builder()
+                .name("nameFilm" + id)
+                .description("descriptionFilm" + id)
+                .duration(100)
+                .releaseDate(LocalDate.of(1990 + id % 30, 1, 1))
+                .mpa(mpa)
+                .genres(genreList)
+                .build();
+    }
+
+    static User createUser(int id) {
+        return User.builder()
+                .login("login" + id)
+                .email("user" + id + "@mail.ru")
+                .name("NameUser" + id)
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @Import({DictionaryCache.class, FilmDbStorage.class, UserDbStorage.class})
+    static class DbConfig {
+        @Bean
+        public DataSource dataSource() {
+            DataSource dataSource = new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .generateUniqueName(true)
+                    .build();
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            return dataSource;
+        }
+
+        @Bean
+        public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        public PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.storage.DictionaryCache;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FilmGenresBenchmark {
+    private static final int FILMS = 100;
+
+    @Param({"0", "1", "4", "16", "64"})
+    private int genresPerFilm;
+
+    private BenchmarkStorages storages;
+    private FilmStorage filmStorage;
+    private Film[] films;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storages = new BenchmarkStorages("db");
+        filmStorage = storages.getFilmStorage();
+        JdbcTemplate jdbcTemplate = storages.getBean(JdbcTemplate.class);
+        int genres = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Genres", Integer.class);
+        for (int i = genres; i < genresPerFilm; i++) {
+            jdbcTemplate.update("INSERT INTO Genres (name) VALUES (?)", "genre" + i);
+        }
+        storages.getBean(DictionaryCache.class).invalidate();
+        random = new Random(42);
+        films = new Film[FILMS];
+        for (int i = 0; i < FILMS; i++) {
+            films[i] = filmStorage.createFilm(BenchmarkStorages.createFilm(i, genresPerFilm));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        storages.close();
+    }
+
+    @Benchmark
+    public Film createFilm() {
+        return filmStorage.createFilm(BenchmarkStorages.createFilm(random.nextInt(FILMS), genresPerFilm));
+    }
+
+    @Benchmark
+    public Film updateFilm() {
+        return filmStorage.updateFilm(films[random.nextInt(FILMS)]);
+    }
+}
@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FilmStorageBenchmark {
+    @Param({"db", "memory"})
+    private String storage;
+    @Param({"1000"})
+    private int films;
+    @Param({"1000"})
+    private int users;
+    @Param({"20"})
+    private int likesPerUser;
+    @Param({"3"})
+    private int genresPerFilm;
+
+    private BenchmarkStorages storages;
+    private FilmStorage filmStorage;
+    private int[] filmIds;
+    private int[] userIds;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storages = new BenchmarkStorages(storage);
+        filmStorage = storages.getFilmStorage();
+        UserStorage userStorage = storages.getUserStorage();
+        random = new Random(42);
+        filmIds = new int[films];
+        for (int i = 0; i < films; i++) {
+            filmIds[i] = filmStorage.createFilm(BenchmarkStorages.createFilm(i, genresPerFilm)).getId();
+        }
+        userIds = new int[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = userStorage.createUser(BenchmarkStorages.createUser(i)).getId();
+        }
+        for (int userId : userIds) {
+            for (int i = 0; i < likesPerUser; i++) {
+                int filmId = filmIds[(int) Math.min(films - 1, Math.abs(random.nextGaussian()) * films / 4)];
+                try {
+                    filmStorage.like(filmId, userId);
+                } catch (RuntimeException e) {
+                    // duplicate like
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        storages.close();
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilms() {
+        return filmStorage.getPopularFilms(10);
+    }
+
+    @Benchmark
+    public void likeAndUnlike() {
+        int filmId = filmIds[random.nextInt(films)];
+        int userId = userIds[random.nextInt(users)];
+        try {
+            filmStorage.like(filmId, userId);
+        } catch (RuntimeException e) {
+            return;
+        }
+        filmStorage.deleteLike(filmId, userId);
+    }
+
+    @Benchmark
+    public Film createFilm() {
+        return filmStorage.createFilm(BenchmarkStorages.createFilm(random.nextInt(films), genresPerFilm));
+    }
+}
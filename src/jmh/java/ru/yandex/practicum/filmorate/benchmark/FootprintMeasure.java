@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ru.yandex.practicum.filmorate.storage.IntSetMap;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+public class FootprintMeasure {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int valuesPerKey = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int valueRange = args.length > 2 ? Integer.parseInt(args[2]) : keys;
+        long edges = (long) keys * valuesPerKey;
+        System.out.printf("%d keys x %d values (value range %d), %s %s%n", keys, valuesPerKey, valueRange,
+                System.getProperty("java.vm.name"), System.getProperty("java.version"));
+        report("Map<Integer, Set<Integer>>", edges, () -> boxed(keys, valuesPerKey, valueRange));
+        report("IntSetMap", edges, () -> primitive(keys, valuesPerKey, valueRange));
+    }
+
+    private static Map<Integer, Set<Integer>> boxed(int keys, int valuesPerKey, int valueRange) {
+        Map<Integer, Set<Integer>> map = new ConcurrentHashMap<>();
+        for (int key = 1; key <= keys; key++) {
+            Set<Integer> values = ConcurrentHashMap.newKeySet();
+            for (int i = 0; i < valuesPerKey; i++) {
+                values.add(value(key, i, valueRange));
+            }
+            map.put(key, values);
+        }
+        return map;
+    }
+
+    private static IntSetMap primitive(int keys, int valuesPerKey, int valueRange) {
+        IntSetMap map = new IntSetMap();
+        for (int key = 1; key <= keys; key++) {
+            for (int i = 0; i < valuesPerKey; i++) {
+                map.add(key, value(key, i, valueRange));
+            }
+        }
+        return map;
+    }
+
+    private static int value(int key, int i, int valueRange) {
+        return 1 + (int) ((key * 31L + i * 7919L) % valueRange);
+    }
+
+    private static void report(String name, long edges, Supplier<Object> factory) {
+        long before = usedHeap();
+        Object structure = factory.get();
+        long after = usedHeap();
+        double perEdge = (double) (after - before) / edges;
+        System.out.printf("%-28s %8.1f MB %6.1f B/edge%n", name, (after - before) / 1048576.0, perEdge);
+        Reference.reachabilityFence(structure);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,186 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LoadTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(60))
+            .build();
+    private final String baseUrl;
+    private final int size;
+    private final AtomicLong ok = new AtomicLong();
+    private final Map<String, LongAdder> errors = new ConcurrentSkipListMap<>();
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(64);
+    private final AtomicLong peakRss = new AtomicLong();
+    private final AtomicLong peakThreads = new AtomicLong();
+    private final Path serverStatus;
+
+    private LoadTest(String baseUrl, int size, long serverPid) {
+        this.baseUrl = baseUrl;
+        this.size = size;
+        this.serverStatus = Path.of("/proc", Long.toString(serverPid), "status");
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int requestsPerConnection = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        long serverPid = Long.parseLong(args[3]);
+        int size = args.length > 4 ? Integer.parseInt(args[4]) : 100;
+        new LoadTest(baseUrl, size, serverPid).run(connections, requestsPerConnection);
+    }
+
+    private void run(int connections, int requestsPerConnection) throws Exception {
+        int[] filmIds = seedFilms();
+        int[] userIds = seedUsers();
+        Map<String, Long> status = serverStatus();
+        System.out.printf("%s: %d connections x %d requests, %d films and users, "
+                        + "server baseline RSS %d MB, threads %d%n", baseUrl, connections, requestsPerConnection, size,
+                status.get("VmRSS") / 1024, status.get("Threads"));
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(this::sample, 0, 500, TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+        CompletableFuture<?>[] users = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            users[i] = user(filmIds, userIds, requestsPerConnection);
+        }
+        CompletableFuture.allOf(users).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sampler.shutdownNow();
+        sample();
+
+        System.out.printf("requests %d, errors %s, %.1f s, %.0f req/s%n", ok.get(), errors, seconds,
+                ok.get() / seconds);
+        System.out.printf("latency p50 <= %d ms, p99 <= %d ms, max <= %d ms%n",
+                percentile(0.5), percentile(0.99), percentile(1.0));
+        System.out.printf("server peak RSS %d MB, peak threads %d%n", peakRss.get() / 1024, peakThreads.get());
+    }
+
+    private CompletableFuture<Void> user(int[] filmIds, int[] userIds, int requests) {
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (int i = 0; i < requests; i++) {
+            String path = i % 2 == 0 ? "/films/" + pick(filmIds) : "/users/" + pick(userIds);
+            chain = chain.thenCompose(ignored -> {
+                long started = System.nanoTime();
+                return send("GET", path, null)
+                        .handle((response, e) -> {
+                            if (e == null && response.statusCode() == 200) {
+                                ok.incrementAndGet();
+                                record(System.nanoTime() - started);
+                            } else {
+                                String error = e == null ? "HTTP " + response.statusCode()
+                                        : (e.getCause() != null ? e.getCause() : e).getClass().getSimpleName();
+                                errors.computeIfAbsent(error, k -> new LongAdder()).increment();
+                            }
+                            return null;
+                        });
+            });
+        }
+        return chain;
+    }
+
+    private static int pick(int[] ids) {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private int[] seedFilms() {
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            String film = "{\"name\":\"load " + i + "\",\"description\":\"load test\","
+                    + "\"releaseDate\":\"2000-01-01\",\"duration\":100,\"mpa\":{\"id\":1}}";
+            ids[i] = json(send("POST", "/films", film).join()).get("id").asInt();
+        }
+        return ids;
+    }
+
+    private int[] seedUsers() {
+        int[] ids = new int[size];
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < size; i++) {
+            String user = "{\"login\":\"load" + run + i + "\",\"email\":\"load" + run + i + "@mail.ru\","
+                    + "\"name\":\"Load\",\"birthday\":\"2000-01-01\"}";
+            ids[i] = json(send("POST", "/users", user).join()).get("id").asInt();
+        }
+        return ids;
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(String method, String path, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(120))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void sample() {
+        Map<String, Long> status = serverStatus();
+        peakRss.accumulateAndGet(status.get("VmRSS"), Math::max);
+        peakThreads.accumulateAndGet(status.get("Threads"), Math::max);
+    }
+
+    private Map<String, Long> serverStatus() {
+        try {
+            Map<String, Long> status = new HashMap<>();
+            for (String line : Files.readAllLines(serverStatus)) {
+                String[] field = line.split(":\\s+");
+                if (field[0].equals("VmRSS") || field[0].equals("Threads")) {
+                    status.put(field[0], Long.parseLong(field[1].split(" ")[0]));
+                }
+            }
+            return status;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JsonNode json(HttpResponse<String> response) {
+        try {
+            return MAPPER.readTree(response.body());
+        } catch (Exception e) {
+            throw new IllegalStateException("Unexpected response " + response.statusCode() + ": " + response.body(), e);
+        }
+    }
+
+    private void record(long nanos) {
+        int millis = (int) Math.min(Integer.MAX_VALUE, nanos / 1_000_000);
+        latencyBuckets.incrementAndGet(32 - Integer.numberOfLeadingZeros(millis));
+    }
+
+    private long percentile(double fraction) {
+        long total = ok.get();
+        long seen = 0;
+        for (int bucket = 0; bucket < latencyBuckets.length(); bucket++) {
+            seen += latencyBuckets.get(bucket);
+            if (seen >= Math.ceil(total * fraction) && latencyBuckets.get(bucket) > 0) {
+                return bucket == 0 ? 0 : 1L << bucket;
+            }
+        }
+        return 0;
+    }
+}
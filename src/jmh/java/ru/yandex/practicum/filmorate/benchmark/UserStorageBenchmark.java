@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.user.StatusFriendship;
+import ru.yandex.practicum.filmorate.model.user.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserStorageBenchmark {
+    @Param({"db", "memory"})
+    private String storage;
+    @Param({"1000"})
+    private int users;
+    @Param({"50"})
+    private int friendsPerUser;
+
+    private BenchmarkStorages storages;
+    private UserStorage userStorage;
+    private int[] userIds;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storages = new BenchmarkStorages(storage);
+        userStorage = storages.getUserStorage();
+        random = new Random(42);
+        userIds = new int[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = userStorage.createUser(BenchmarkStorages.createUser(i)).getId();
+        }
+        for (int i = 0; i < users; i++) {
+            for (int j = 1; j <= friendsPerUser; j++) {
+                int friendId = userIds[(i + j * 7) % users];
+                if (friendId != userIds[i]) {
+                    try {
+                        userStorage.addFriend(userIds[i], friendId, StatusFriendship.UNCONFIRMED);
+                    } catch (RuntimeException e) {
+                        // duplicate friendship
+                    }
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        storages.close();
+    }
+
+    @Benchmark
+    public List<User> getUsersFriends() {
+        return userStorage.getUsersFriends(userIds[random.nextInt(users)]);
+    }
+
+    @Benchmark
+    public List<User> getCommonFriends() {
+        return userStorage.getCommonFriends(userIds[random.nextInt(users)], userIds[random.nextInt(users)]);
+    }
+}
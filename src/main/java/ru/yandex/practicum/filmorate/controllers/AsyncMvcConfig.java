@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+@Configuration
+@Profile("async")
+public class AsyncMvcConfig implements WebMvcConfigurer, WebMvcRegistrations {
+    private final JdbcCallExecutor jdbcCallExecutor;
+    private final long timeoutMillis;
+
+    @Autowired
+    public AsyncMvcConfig(JdbcCallExecutor jdbcCallExecutor,
+                          @Value("${filmorate.async.request-timeout-ms:30000}") long timeoutMillis) {
+        this.jdbcCallExecutor = jdbcCallExecutor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(jdbcCallExecutor.getExecutor());
+        configurer.setDefaultTimeout(timeoutMillis);
+    }
+
+    @Override
+    public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+        return new JdbcHandlerAdapter(jdbcCallExecutor);
+    }
+}
@@ -0,0 +1,155 @@
+package ru.yandex.practicum.filmorate.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.yandex.practicum.filmorate.model.ErrorResponse;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.limiter.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final String[] UNLIMITED_PATHS = {"/actuator", "/genres", "/mpa"};
+
+    private final ObjectMapper objectMapper;
+    private final AimdLimiter readLimiter;
+    private final AimdLimiter writeLimiter;
+    private final Counter readRejected;
+    private final Counter writeRejected;
+    private final String retryAfterSeconds;
+
+    @Autowired
+    public ConcurrencyLimitFilter(ObjectMapper objectMapper, ObjectProvider<MeterRegistry> meterRegistry,
+                                  @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                  @Value("${filmorate.limiter.read.latency-threshold-ms:50}") long readThresholdMillis,
+                                  @Value("${filmorate.limiter.write.latency-threshold-ms:100}") long writeThresholdMillis,
+                                  @Value("${filmorate.limiter.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.objectMapper = objectMapper;
+        this.readLimiter = new AimdLimiter(poolSize * 2, 1, poolSize * 4,
+                TimeUnit.MILLISECONDS.toNanos(readThresholdMillis));
+        this.writeLimiter = new AimdLimiter(poolSize, 1, poolSize,
+                TimeUnit.MILLISECONDS.toNanos(writeThresholdMillis));
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        readRejected = register(registry, "read", readLimiter);
+        writeRejected = register(registry, "write", writeLimiter);
+        log.info("Concurrency limiter enabled: read limit {}, write limit {}", readLimiter.getLimit(),
+                writeLimiter.getLimit());
+    }
+
+    public AimdLimiter getReadLimiter() {
+        return readLimiter;
+    }
+
+    public AimdLimiter getWriteLimiter() {
+        return writeLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String unlimited : UNLIMITED_PATHS) {
+            if (path.startsWith(unlimited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        AimdLimiter limiter = read ? readLimiter : writeLimiter;
+        if (!limiter.tryAcquire()) {
+            (read ? readRejected : writeRejected).increment();
+            reject(response, read ? "read" : "write");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        boolean released = false;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limiter, start, response));
+                released = true;
+            }
+        } finally {
+            if (!released) {
+                limiter.release(System.nanoTime() - start, failed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, String budget) throws IOException {
+        log.info("Request shed: {} concurrency limit reached", budget);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                String.format("Service unavailable: too many concurrent %s requests", budget)));
+    }
+
+    private static Counter register(MeterRegistry registry, String budget, AimdLimiter limiter) {
+        Gauge.builder("filmorate.limiter.limit", limiter, AimdLimiter::getLimit).tag("budget", budget)
+                .register(registry);
+        Gauge.builder("filmorate.limiter.inflight", limiter, AimdLimiter::getInFlight).tag("budget", budget)
+                .register(registry);
+        return Counter.builder("filmorate.limiter.rejected").tag("budget", budget).register(registry);
+    }
+
+    private static class ReleaseOnComplete implements AsyncListener {
+        private final AimdLimiter limiter;
+        private final long start;
+        private final HttpServletResponse response;
+
+        private ReleaseOnComplete(AimdLimiter limiter, long start, HttpServletResponse response) {
+            this.limiter = limiter;
+            this.start = start;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release(System.nanoTime() - start, response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
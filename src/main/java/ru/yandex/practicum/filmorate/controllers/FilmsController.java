@@ -1,12 +1,24 @@
 package ru.yandex.practicum.filmorate.controllers;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.film.FilmImportReport;
+import ru.yandex.practicum.filmorate.service.CatalogVersions;
+import ru.yandex.practicum.filmorate.service.FilmJsonCache;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -14,10 +26,17 @@ import java.util.List;
 @RequestMapping("/films")
 public class FilmsController {
     private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final CatalogVersions catalogVersions;
+    private final FilmJsonCache filmJsonCache;
 
     @Autowired
-    public FilmsController(FilmService filmService) {
+    public FilmsController(FilmService filmService, ObjectMapper objectMapper, CatalogVersions catalogVersions,
+                           FilmJsonCache filmJsonCache) {
         this.filmService = filmService;
+        this.objectMapper = objectMapper;
+        this.catalogVersions = catalogVersions;
+        this.filmJsonCache = filmJsonCache;
     }
 
     @PostMapping()
@@ -25,13 +44,34 @@ public class FilmsController {
         return filmService.createFilm(film);
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<FilmImportReport> importFilms(InputStream body,
+                                                        @RequestParam(defaultValue = "1000") int chunkSize)
+            throws IOException {
+        try (MappingIterator<Film> films = objectMapper.readerFor(Film.class).readValues(body)) {
+            return importResponse(filmService.importFilms(films, chunkSize));
+        }
+    }
+
+    static ResponseEntity<FilmImportReport> importResponse(FilmImportReport report) {
+        return ResponseEntity.status(report.getError() == null ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(report);
+    }
+
     @PutMapping()
     public Film updateFilm(@Valid @RequestBody Film film) {
         return filmService.updateFilm(film);
     }
 
     @GetMapping("/{id}")
-    public Film getFilm(@PathVariable("id") int filmId) {
+    public ResponseEntity<byte[]> getFilm(@PathVariable("id") int filmId, WebRequest request) {
+        if (request.checkNotModified(catalogVersions.getFilmETag(filmId), catalogVersions.getFilmLastModified(filmId))) {
+            return null;
+        }
+        return json(filmJsonCache.getFilm(filmId, this::getFilm));
+    }
+
+    public Film getFilm(int filmId) {
         return filmService.getFilm(filmId);
     }
 
@@ -40,13 +80,37 @@ public class FilmsController {
         return filmService.getAllFilms();
     }
 
+    @GetMapping(params = "limit")
+    public List<Film> getFilmsPage(@RequestParam(defaultValue = "0") int afterId, @RequestParam int limit) {
+        return filmService.getFilmsPage(afterId, limit);
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllFilms() {
+        return JsonStreamingResponse.ofArray(objectMapper, filmService::streamAllFilms);
+    }
+
     public void clearAllFilms() {
         filmService.clearAllFilms();
     }
 
+    @GetMapping("/search")
+    public List<Film> searchFilms(@RequestParam String query,
+                                  @RequestParam(defaultValue = "title,description") List<String> by,
+                                  @RequestParam(defaultValue = "10") int limit) {
+        return filmService.searchFilms(query, by, limit);
+    }
+
     @GetMapping("/popular")
-    public List<Film> getPopularFilms(@RequestParam(required = false, defaultValue = "10") String count) {
-        return filmService.getPopularFilms(Integer.parseInt(count));
+    public ResponseEntity<byte[]> getPopularFilms(@RequestParam(required = false, defaultValue = "10") String count,
+                                                  @RequestParam(required = false) Integer genreId,
+                                                  @RequestParam(required = false) Integer year,
+                                                  WebRequest request) {
+        if (request.checkNotModified(catalogVersions.getCatalogETag(), catalogVersions.getCatalogLastModified())) {
+            return null;
+        }
+        int[] ids = filmService.getPopularFilmIds(Integer.parseInt(count), genreId, year);
+        return json(filmJsonCache.getFilms(ids, filmService::getFilmsByIds));
     }
 
     @PutMapping("/{id}/like/{userId}")
@@ -64,6 +128,10 @@ public class FilmsController {
         filmService.deleteFilm(id);
     }
 
+    private ResponseEntity<byte[]> json(byte[] body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     public FilmService getFilmService() {
         return filmService;
     }
@@ -5,7 +5,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.service.CatalogVersions;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import java.util.List;
@@ -14,19 +16,27 @@ import java.util.List;
 @RequestMapping("/genres")
 public class GenreController {
     private final FilmService filmService;
+    private final CatalogVersions catalogVersions;
 
     @Autowired
-    public GenreController(FilmService filmService) {
+    public GenreController(FilmService filmService, CatalogVersions catalogVersions) {
         this.filmService = filmService;
+        this.catalogVersions = catalogVersions;
     }
 
     @GetMapping("/{id}")
-    public Genre getGenreById(@PathVariable("id") int genreId) {
+    public Genre getGenreById(@PathVariable("id") int genreId, WebRequest request) {
+        if (request.checkNotModified(catalogVersions.getDictionaryETag(), catalogVersions.getDictionaryLastModified())) {
+            return null;
+        }
         return filmService.getGenreById(genreId);
     }
 
     @GetMapping()
-    public List<Genre> getGenres() {
+    public List<Genre> getGenres(WebRequest request) {
+        if (request.checkNotModified(catalogVersions.getDictionaryETag(), catalogVersions.getDictionaryLastModified())) {
+            return null;
+        }
         return filmService.getGenres();
     }
 
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.controllers;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+public class JdbcHandlerAdapter extends RequestMappingHandlerAdapter {
+    private static final List<Class<?>> ASYNC_TYPES = List.of(Callable.class, CompletionStage.class,
+            DeferredResult.class, WebAsyncTask.class, ResponseBodyEmitter.class, StreamingResponseBody.class);
+
+    private final JdbcCallExecutor jdbc;
+
+    public JdbcHandlerAdapter(JdbcCallExecutor jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+        if (isAsync(ResolvableType.forMethodReturnType(handlerMethod.getMethod()))) {
+            return new ServletInvocableHandlerMethod(handlerMethod);
+        }
+        return new ServletInvocableHandlerMethod(handlerMethod) {
+            @Override
+            protected Object doInvoke(Object... args) {
+                return jdbc.supply(() -> invokeBlocking(args));
+            }
+
+            private Object invokeBlocking(Object... args) {
+                try {
+                    return super.doInvoke(args);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }
+        };
+    }
+
+    private static boolean isAsync(ResolvableType returnType) {
+        Class<?> type = returnType.toClass();
+        if (ResponseEntity.class.isAssignableFrom(type)) {
+            type = returnType.getGeneric().toClass();
+        }
+        for (Class<?> asyncType : ASYNC_TYPES) {
+            if (asyncType.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -5,7 +5,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.model.film.Mpa;
+import ru.yandex.practicum.filmorate.service.CatalogVersions;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import java.util.List;
@@ -14,19 +16,27 @@ import java.util.List;
 @RequestMapping("/mpa")
 public class MpaController {
     private final FilmService filmService;
+    private final CatalogVersions catalogVersions;
 
     @Autowired
-    public MpaController(FilmService filmService) {
+    public MpaController(FilmService filmService, CatalogVersions catalogVersions) {
         this.filmService = filmService;
+        this.catalogVersions = catalogVersions;
     }
 
     @GetMapping("/{id}")
-    public Mpa getMpaById(@PathVariable int id) {
+    public Mpa getMpaById(@PathVariable int id, WebRequest request) {
+        if (request.checkNotModified(catalogVersions.getDictionaryETag(), catalogVersions.getDictionaryLastModified())) {
+            return null;
+        }
         return filmService.getMpaById(id);
     }
 
     @GetMapping()
-    public List<Mpa> getMPARatings() {
+    public List<Mpa> getMPARatings(WebRequest request) {
+        if (request.checkNotModified(catalogVersions.getDictionaryETag(), catalogVersions.getDictionaryLastModified())) {
+            return null;
+        }
         return filmService.getMpaRatings();
     }
 }
\ No newline at end of file
@@ -1,8 +1,12 @@
 package ru.yandex.practicum.filmorate.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.film.Film;
 import ru.yandex.practicum.filmorate.model.user.User;
 import ru.yandex.practicum.filmorate.service.UserService;
 
@@ -14,10 +18,12 @@ import java.util.List;
 @Validated
 public class UserController {
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping()
@@ -35,6 +41,16 @@ public class UserController {
         return userService.getAllUsers();
     }
 
+    @GetMapping(params = "limit")
+    public List<User> getUsersPage(@RequestParam(defaultValue = "0") int afterId, @RequestParam int limit) {
+        return userService.getUsersPage(afterId, limit);
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return JsonStreamingResponse.ofArray(objectMapper, userService::streamAllUsers);
+    }
+
     @GetMapping("/{id}")
     public User getUser(@PathVariable(required = false) int id) {
         return userService.getUser(id);
@@ -50,6 +66,16 @@ public class UserController {
         return userService.getCommonFriends(id, otherId);
     }
 
+    @GetMapping("/{id}/friends/suggestions")
+    public List<User> getFriendSuggestions(@PathVariable int id, @RequestParam(defaultValue = "10") int limit) {
+        return userService.getFriendSuggestions(id, limit);
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendations(@PathVariable int id, @RequestParam(defaultValue = "10") int limit) {
+        return userService.getRecommendations(id, limit);
+    }
+
     @PutMapping("/{id}/friends/{friendId}")
     public void addFriend(@PathVariable int id, @PathVariable int friendId) {
         userService.addFriend(id, friendId);
@@ -69,4 +95,9 @@ public class UserController {
         userService.deleteUser(id);
     }
 
+    @DeleteMapping(params = "ids")
+    public void deleteUsers(@RequestParam int[] ids) {
+        userService.deleteUsers(ids);
+    }
+
 }
@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.mapper;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.model.film.Mpa;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+public class FilmRowCallbackHandler implements RowCallbackHandler {
+    private final Consumer<Film> consumer;
+    private Film film;
+
+    public FilmRowCallbackHandler(Consumer<Film> consumer) {
+        this.consumer = consumer;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+        int filmId = rs.getInt("film_id");
+        if (film == null || film.getId() != filmId) {
+            finish();
+            Mpa mpa = new Mpa();
+            mpa.setId(rs.getInt("mpa_id"));
+            mpa.setName(rs.getString("mpa_name"));
+            film = Film.builder()
+                    .id(filmId)
+                    .name(rs.getString("NAME"))
+                    .description(rs.getString("description"))
+                    .releaseDate(rs.getDate("releaseDate").toLocalDate())
+                    .duration(rs.getInt("duration"))
+                    .mpa(mpa)
+                    .likes(rs.getInt("rate"))
+                    .build();
+        }
+        if (rs.getObject("genre_id") != null) {
+            Genre genre = new Genre();
+            genre.setId(rs.getInt("genre_id"));
+            genre.setName(rs.getString("GENRES_NAME"));
+            film.getGenres().add(genre);
+        }
+    }
+
+    public void finish() {
+        if (film != null) {
+            consumer.accept(film);
+            film = null;
+        }
+    }
+}
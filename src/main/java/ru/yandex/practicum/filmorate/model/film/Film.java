@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.model.film;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -34,6 +35,9 @@ public class Film {
     private Mpa mpa;
     @Builder.Default
     private List<Genre> genres = new ArrayList<>();
+    @EqualsAndHashCode.Exclude
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int likes;
 
     public static class FilmBuilder {
         private LocalDate releaseDate;
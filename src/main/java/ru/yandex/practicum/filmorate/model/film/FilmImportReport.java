@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.model.film;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class FilmImportReport {
+    private int received;
+    private int imported;
+    private int rejectedCount;
+    private long elapsedMillis;
+    private String error;
+    private List<Chunk> chunks = new ArrayList<>();
+    private List<Rejected> rejected = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    public static class Chunk {
+        private int number;
+        private int films;
+        private long elapsedMillis;
+        private long filmsPerSecond;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Rejected {
+        private int index;
+        private String name;
+        private String message;
+    }
+}
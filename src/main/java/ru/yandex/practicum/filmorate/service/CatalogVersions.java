@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.DictionaryCache;
+import ru.yandex.practicum.filmorate.storage.LikesIndex;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class CatalogVersions {
+    private final long startedAt = System.currentTimeMillis();
+    private final Map<Integer, Version> films = new ConcurrentHashMap<>();
+    private final Version initial = new Version(0, startedAt);
+    private volatile Version catalog = initial;
+    private volatile Version dictionary = initial;
+    private volatile long generation;
+
+    @Autowired
+    public CatalogVersions(LikesIndex likesIndex, DictionaryCache dictionaryCache) {
+        likesIndex.addListener(this::filmChanged);
+        dictionaryCache.addListener(this::dictionaryChanged);
+    }
+
+    public void filmChanged(int id) {
+        long now = System.currentTimeMillis();
+        films.merge(id, new Version(1, now), (current, next) -> current.next(now));
+        catalogChanged(now);
+    }
+
+    public void catalogChanged() {
+        catalogChanged(System.currentTimeMillis());
+    }
+
+    public synchronized void dictionaryChanged() {
+        dictionary = dictionary.next(System.currentTimeMillis());
+    }
+
+    public synchronized void catalogCleared() {
+        generation++;
+        films.clear();
+        catalogChanged();
+    }
+
+    public String getFilmETag(int id) {
+        return String.format("\"film-%d-%d-%d\"", startedAt, generation, films.getOrDefault(id, initial).number);
+    }
+
+    public long getFilmLastModified(int id) {
+        return films.getOrDefault(id, catalog).modifiedAt;
+    }
+
+    public String getCatalogETag() {
+        return eTag("catalog", catalog);
+    }
+
+    public long getCatalogLastModified() {
+        return catalog.modifiedAt;
+    }
+
+    public String getDictionaryETag() {
+        return eTag("dictionary", dictionary);
+    }
+
+    public long getDictionaryLastModified() {
+        return dictionary.modifiedAt;
+    }
+
+    private synchronized void catalogChanged(long now) {
+        catalog = catalog.next(now);
+    }
+
+    private String eTag(String kind, Version version) {
+        return String.format("\"%s-%d-%d\"", kind, startedAt, version.number);
+    }
+
+    private static class Version {
+        private final long number;
+        private final long modifiedAt;
+
+        private Version(long number, long modifiedAt) {
+            this.number = number;
+            this.modifiedAt = modifiedAt;
+        }
+
+        private Version next(long now) {
+            return new Version(number + 1, Math.max(now, modifiedAt));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.InternalServerError;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.storage.LikesIndex;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+@Slf4j
+@Component
+public class FilmJsonCache {
+    private static final int VERSION_STRIPES = 1024;
+
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final Cache<Integer, byte[]> entries;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final AtomicLong epoch = new AtomicLong();
+
+    @Autowired
+    public FilmJsonCache(ObjectMapper objectMapper, LikesIndex likesIndex,
+                         @Value("${filmorate.films.json-cache.max-bytes:16777216}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Integer id, byte[] json) -> json.length)
+                .recordStats()
+                .build();
+        likesIndex.addListener(this::invalidate);
+    }
+
+    public byte[] getFilm(int id, IntFunction<Film> loader) {
+        long stamp = stamp(id);
+        byte[] json = entries.getIfPresent(id);
+        if (json == null) {
+            json = put(loader.apply(id), stamp);
+        }
+        return json;
+    }
+
+    public byte[] getFilms(int[] ids, Function<int[], List<Film>> loader) {
+        long[] stamps = new long[ids.length];
+        byte[][] fragments = new byte[ids.length][];
+        int[] missing = new int[ids.length];
+        int missingCount = 0;
+        for (int i = 0; i < ids.length; i++) {
+            stamps[i] = stamp(ids[i]);
+            fragments[i] = entries.getIfPresent(ids[i]);
+            if (fragments[i] == null) {
+                missing[missingCount++] = ids[i];
+            }
+        }
+        if (missingCount > 0) {
+            Map<Integer, Film> loaded = new HashMap<>();
+            for (Film film : loader.apply(Arrays.copyOf(missing, missingCount))) {
+                loaded.put(film.getId(), film);
+            }
+            for (int i = 0; i < ids.length; i++) {
+                Film film = loaded.get(ids[i]);
+                if (fragments[i] == null && film != null) {
+                    fragments[i] = put(film, stamps[i]);
+                }
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        boolean first = true;
+        for (byte[] fragment : fragments) {
+            if (fragment != null) {
+                if (!first) {
+                    out.write(',');
+                }
+                out.writeBytes(fragment);
+                first = false;
+            }
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    public void invalidate(int id) {
+        versions.incrementAndGet(stripe(id));
+        entries.invalidate(id);
+    }
+
+    public void clear() {
+        epoch.incrementAndGet();
+        entries.invalidateAll();
+    }
+
+    public long getSizeInBytes() {
+        entries.cleanUp();
+        return entries.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    public long getSize() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    public long getHitCount() {
+        return entries.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return entries.stats().missCount();
+    }
+
+    private long stamp(int id) {
+        return epoch.get() + versions.get(stripe(id));
+    }
+
+    private static int stripe(int id) {
+        return Math.floorMod(id, VERSION_STRIPES);
+    }
+
+    private byte[] put(Film film, long stamp) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(film);
+        } catch (JsonProcessingException e) {
+            log.warn("Film id:{} could not be serialized: {}", film.getId(), e.getMessage());
+            throw new InternalServerError(String.format("Film with id: %d could not be serialized", film.getId()));
+        }
+        if (json.length <= maxBytes) {
+            entries.asMap().compute(film.getId(), (id, cached) -> stamp(id) == stamp ? json : cached);
+        }
+        return json;
+    }
+}
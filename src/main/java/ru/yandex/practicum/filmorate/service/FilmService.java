@@ -1,34 +1,201 @@
 package ru.yandex.practicum.filmorate.service;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.film.FilmImportReport;
 import ru.yandex.practicum.filmorate.model.film.Genre;
 import ru.yandex.practicum.filmorate.model.film.Mpa;
+import ru.yandex.practicum.filmorate.storage.FilmSearchIndex;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikesIndex;
+import ru.yandex.practicum.filmorate.storage.PopularFilmsIndex;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class FilmService {
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_IMPORT_CHUNK_SIZE = 5000;
+    private static final int MAX_REJECTED_DETAILS = 100;
+    private static final int MAX_SEARCH_RESULTS = 100;
 
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
+    private final Validator validator;
+    private final Optional<LikeWriteBehindBuffer> likeBuffer;
+    private final LikesIndex likesIndex;
+    private final FilmSearchIndex searchIndex;
+    private final PopularFilmsIndex popularIndex;
+    private final CatalogVersions catalogVersions;
+    private final FilmJsonCache filmJsonCache;
 
     @Autowired
-    public FilmService(@Qualifier("filmDbStorage") FilmStorage filmStorage, @Qualifier("userDbStorage") UserStorage userStorage) {
+    public FilmService(@Qualifier("filmStorage") FilmStorage filmStorage, @Qualifier("userStorage") UserStorage userStorage,
+                       Validator validator, Optional<LikeWriteBehindBuffer> likeBuffer, LikesIndex likesIndex,
+                       FilmSearchIndex searchIndex, PopularFilmsIndex popularIndex, CatalogVersions catalogVersions,
+                       FilmJsonCache filmJsonCache) {
         this.filmStorage = filmStorage;
         this.userStorage = userStorage;
+        this.validator = validator;
+        this.likeBuffer = likeBuffer;
+        this.likesIndex = likesIndex;
+        this.searchIndex = searchIndex;
+        this.popularIndex = popularIndex;
+        this.catalogVersions = catalogVersions;
+        this.filmJsonCache = filmJsonCache;
     }
 
     public Film createFilm(Film film) {
-        return filmStorage.createFilm(rebuildFilm(film));
+        Film created = filmStorage.createFilm(rebuildFilm(film));
+        searchIndex.addFilm(created);
+        popularIndex.addFilm(created);
+        catalogVersions.filmChanged(created.getId());
+        return created;
+    }
+
+    public FilmImportReport importFilms(Iterator<Film> source, int chunkSize) {
+        if (chunkSize <= 0 || chunkSize > MAX_IMPORT_CHUNK_SIZE) {
+            throw new ValidationException(String.format("Chunk size must be between 1 and %d", MAX_IMPORT_CHUNK_SIZE));
+        }
+        FilmImportReport report = new FilmImportReport();
+        long start = System.nanoTime();
+        List<Film> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+        int index = 0;
+        int stoppedAt = 0;
+        try {
+            while (source.hasNext()) {
+                stoppedAt = index;
+                Film film = null;
+                String error;
+                try {
+                    film = source.next();
+                    error = validateForImport(film);
+                } catch (RuntimeException e) {
+                    error = String.format("Malformed film: %s", importError(e));
+                }
+                if (error == null) {
+                    chunk.add(rebuildFilm(film));
+                    chunkIndexes.add(index);
+                } else {
+                    reject(report, index, film, error);
+                }
+                index++;
+                if (chunk.size() == chunkSize) {
+                    stoppedAt = chunkIndexes.get(0);
+                    importChunk(report, chunk, chunkIndexes);
+                    chunk = new ArrayList<>(chunkSize);
+                    chunkIndexes = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                stoppedAt = chunkIndexes.get(0);
+                importChunk(report, chunk, chunkIndexes);
+            }
+        } catch (RuntimeException e) {
+            log.info("Film import stopped at film {}: {}", stoppedAt, e.getMessage());
+            report.setError(String.format("Import stopped at film %d: %s", stoppedAt, e.getMessage()));
+        }
+        report.setReceived(index);
+        report.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        log.info("Imported {} of {} films", report.getImported(), index);
+        return report;
+    }
+
+    private void importChunk(FilmImportReport report, List<Film> chunk, List<Integer> indexes) {
+        try {
+            importChunk(report, chunk);
+        } catch (DataIntegrityViolationException | NotFoundException e) {
+            log.info("Film import chunk of {} failed, retrying films one by one: {}", chunk.size(), e.getMessage());
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    importChunk(report, List.of(chunk.get(i)));
+                } catch (DataIntegrityViolationException | NotFoundException filmError) {
+                    reject(report, indexes.get(i), chunk.get(i), importError(filmError));
+                }
+            }
+        }
+    }
+
+    private void importChunk(FilmImportReport report, List<Film> chunk) {
+        long start = System.nanoTime();
+        filmStorage.createFilms(chunk);
+        chunk.forEach(searchIndex::addFilm);
+        chunk.forEach(popularIndex::addFilm);
+        chunk.forEach(film -> catalogVersions.filmChanged(film.getId()));
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+        report.setImported(report.getImported() + chunk.size());
+        report.getChunks().add(new FilmImportReport.Chunk(report.getChunks().size() + 1, chunk.size(),
+                elapsed / 1_000_000, chunk.size() * 1_000_000_000L / elapsed));
+    }
+
+    private void reject(FilmImportReport report, int index, Film film, String error) {
+        report.setRejectedCount(report.getRejectedCount() + 1);
+        if (report.getRejected().size() < MAX_REJECTED_DETAILS) {
+            report.getRejected().add(new FilmImportReport.Rejected(index, film == null ? null : film.getName(), error));
+        }
+    }
+
+    private static String importError(RuntimeException e) {
+        Throwable cause = e instanceof NestedRuntimeException ? ((NestedRuntimeException) e).getMostSpecificCause() : e;
+        return String.valueOf(cause.getMessage()).split("\n", 2)[0];
+    }
+
+    private String validateForImport(Film film) {
+        Set<ConstraintViolation<Film>> violations = validator.validate(film);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(" "));
+        }
+        if (film.getReleaseDate().isBefore(Film.controlDate)) {
+            return "Release Date not by before " + Film.controlDate;
+        }
+        if (film.getMpa() == null) {
+            return "Mpa film must be filled!";
+        }
+        try {
+            filmStorage.getMpaById(film.getMpa().getId());
+            if (film.getGenres() != null) {
+                for (Genre genre : film.getGenres()) {
+                    if (genre == null) {
+                        return "Genre film must be filled!";
+                    }
+                    filmStorage.getGenreById(genre.getId());
+                }
+            }
+        } catch (NotFoundException e) {
+            return e.getMessage();
+        }
+        return null;
     }
 
     public Film updateFilm(Film film) {
-        return filmStorage.updateFilm(rebuildFilm(film));
+        Film updated = filmStorage.updateFilm(rebuildFilm(film));
+        searchIndex.updateFilm(updated);
+        popularIndex.updateFilm(updated);
+        catalogVersions.filmChanged(updated.getId());
+        filmJsonCache.invalidate(updated.getId());
+        return updated;
     }
 
     public Film getFilm(int id) {
@@ -39,33 +206,134 @@ public class FilmService {
         return filmStorage.getAllFilms();
     }
 
+    public List<Film> getFilmsPage(int afterId, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException(String.format("Limit must be between 1 and %d", MAX_PAGE_SIZE));
+        }
+        return filmStorage.getFilmsPage(afterId, limit);
+    }
+
+    public void streamAllFilms(Consumer<Film> consumer) {
+        filmStorage.streamAllFilms(consumer);
+    }
+
+    public List<Film> searchFilms(String query, List<String> by, int limit) {
+        if (limit <= 0 || limit > MAX_SEARCH_RESULTS) {
+            throw new ValidationException(String.format("Limit must be between 1 and %d", MAX_SEARCH_RESULTS));
+        }
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Search query must be filled!");
+        }
+        boolean byTitle = false;
+        boolean byDescription = false;
+        for (String field : by) {
+            if ("title".equals(field)) {
+                byTitle = true;
+            } else if ("description".equals(field)) {
+                byDescription = true;
+            } else {
+                throw new ValidationException(String.format("Unknown search field: %s", field));
+            }
+        }
+        return getFilmsInOrder(searchIndex.search(query, byTitle, byDescription, limit));
+    }
+
     public List<Film> getPopularFilms(int count) {
-        return filmStorage.getPopularFilms(count);
+        return getPopularFilms(count, null, null);
+    }
+
+    public List<Film> getPopularFilms(int count, Integer genreId, Integer year) {
+        checkPopularFilter(count, genreId);
+        if (!popularIndex.isReady()) {
+            return filmStorage.getPopularFilms(count, genreId, year);
+        }
+        return getFilmsInOrder(popularIndex.getPopularFilmIds(count == 0 ? 10 : count, genreId, year));
+    }
+
+    public int[] getPopularFilmIds(int count, Integer genreId, Integer year) {
+        checkPopularFilter(count, genreId);
+        if (!popularIndex.isReady()) {
+            return filmStorage.getPopularFilms(count, genreId, year).stream().mapToInt(Film::getId).toArray();
+        }
+        return popularIndex.getPopularFilmIds(count == 0 ? 10 : count, genreId, year);
+    }
+
+    private void checkPopularFilter(int count, Integer genreId) {
+        if (count < 0) {
+            throw new ValidationException("Count must not be negative");
+        }
+        if (genreId != null) {
+            filmStorage.getGenreById(genreId);
+        }
+    }
+
+    public List<Film> getFilmsByIds(int[] ids) {
+        return filmStorage.getFilmsByIds(ids);
+    }
+
+    private List<Film> getFilmsInOrder(int[] ids) {
+        Map<Integer, Film> films = filmStorage.getFilmsByIds(ids).stream()
+                .collect(Collectors.toMap(Film::getId, Function.identity()));
+        return Arrays.stream(ids)
+                .mapToObj(films::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     public void like(int filmId, int userId) {
         filmStorage.filmFound(filmId);
         userStorage.isExistById(userId);
+        if (likeBuffer.isPresent()) {
+            likeBuffer.get().like(filmId, userId);
+            return;
+        }
         filmStorage.like(filmId, userId);
+        likesIndex.like(filmId, userId);
     }
 
     public void deleteLike(int filmId, int userId) {
         filmStorage.filmFound(filmId);
         userStorage.isExistById(userId);
+        if (likeBuffer.isPresent()) {
+            likeBuffer.get().deleteLike(filmId, userId);
+            return;
+        }
         filmStorage.deleteLike(filmId, userId);
+        likesIndex.deleteLike(filmId, userId);
     }
 
     public void deleteLikes(int userId) {
         userStorage.isExistById(userId);
         filmStorage.deleteLikes(userId);
+        likesIndex.deleteUser(userId);
     }
 
     public void clearAllFilms() {
+        likeBuffer.ifPresent(LikeWriteBehindBuffer::clear);
         filmStorage.clearAllFilms();
+        likesIndex.clear();
+        searchIndex.clear();
+        popularIndex.clear();
+        catalogVersions.catalogCleared();
+        filmJsonCache.clear();
+    }
+
+    public List<Integer> reconcileLikes() {
+        List<Integer> repaired = filmStorage.reconcileLikes();
+        for (int id : repaired) {
+            catalogVersions.filmChanged(id);
+            filmJsonCache.invalidate(id);
+        }
+        return repaired;
     }
 
     public void deleteFilm(int id) {
         filmStorage.deleteFilm(id);
+        likesIndex.deleteFilm(id);
+        searchIndex.deleteFilm(id);
+        popularIndex.deleteFilm(id);
+        catalogVersions.filmChanged(id);
+        filmJsonCache.invalidate(id);
     }
 
     private Film rebuildFilm(Film film) {
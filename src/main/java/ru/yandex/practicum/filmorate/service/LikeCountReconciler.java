@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.likes.reconcile.enabled", havingValue = "true")
+public class LikeCountReconciler {
+    private final FilmService filmService;
+
+    @Autowired
+    public LikeCountReconciler(FilmService filmService) {
+        this.filmService = filmService;
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.likes.reconcile.interval-ms:600000}",
+            initialDelayString = "${filmorate.likes.reconcile.interval-ms:600000}")
+    public void reconcile() {
+        long start = System.nanoTime();
+        List<Integer> repaired = filmService.reconcileLikes();
+        if (repaired.isEmpty()) {
+            log.debug("Like counts are consistent");
+        } else {
+            log.warn("Repaired like counts of {} films in {} ms: {}", repaired.size(),
+                    (System.nanoTime() - start) / 1_000_000, repaired);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ServiceUnavailableException;
+import ru.yandex.practicum.filmorate.model.film.Like;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikesIndex;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.likes.write-behind.enabled", havingValue = "true")
+public class LikeWriteBehindBuffer {
+    public enum Durability {
+        ASYNC,
+        SYNC
+    }
+
+    private final FilmStorage filmStorage;
+    private final LikesIndex likesIndex;
+    private final int capacity;
+    private final long offerTimeoutMillis;
+    private final long syncTimeoutMillis;
+    private final long retryDelayMillis;
+    private final long maxRetryDelayMillis;
+    private final Durability durability;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Object flushLock = new Object();
+    private final Timer flushTimer;
+    private final Counter flushed;
+    private final Counter coalesced;
+    private final Counter discarded;
+    private final Counter rejected;
+    private final Counter failed;
+    private Map<Long, Boolean> pending = new LinkedHashMap<>();
+    private CompletableFuture<Void> pendingFlush = new CompletableFuture<>();
+    private int failedFlushes;
+    private long nextFlushNanos = System.nanoTime();
+
+    @Autowired
+    public LikeWriteBehindBuffer(@Qualifier("filmStorage") FilmStorage filmStorage, LikesIndex likesIndex,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${filmorate.likes.write-behind.capacity:10000}") int capacity,
+                                 @Value("${filmorate.likes.write-behind.offer-timeout-ms:100}") long offerTimeoutMillis,
+                                 @Value("${filmorate.likes.write-behind.sync-timeout-ms:5000}") long syncTimeoutMillis,
+                                 @Value("${filmorate.likes.write-behind.flush-interval-ms:200}") long retryDelayMillis,
+                                 @Value("${filmorate.likes.write-behind.max-retry-delay-ms:30000}")
+                                 long maxRetryDelayMillis,
+                                 @Value("${filmorate.likes.write-behind.durability:ASYNC}") Durability durability) {
+        this.filmStorage = filmStorage;
+        this.likesIndex = likesIndex;
+        this.capacity = capacity;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.syncTimeoutMillis = syncTimeoutMillis;
+        this.retryDelayMillis = retryDelayMillis;
+        this.maxRetryDelayMillis = maxRetryDelayMillis;
+        this.durability = durability;
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("filmorate.likes.queue.depth", this, LikeWriteBehindBuffer::getQueueDepth).register(registry);
+        flushTimer = Timer.builder("filmorate.likes.flush").register(registry);
+        flushed = registry.counter("filmorate.likes.flushed");
+        coalesced = registry.counter("filmorate.likes.coalesced");
+        discarded = registry.counter("filmorate.likes.discarded");
+        rejected = registry.counter("filmorate.likes.rejected");
+        failed = registry.counter("filmorate.likes.failed");
+        log.info("Like write-behind enabled: capacity {}, durability {}", capacity, durability);
+    }
+
+    public void like(int filmId, int userId) {
+        submit(filmId, userId, true);
+    }
+
+    public void deleteLike(int filmId, int userId) {
+        submit(filmId, userId, false);
+    }
+
+    private void submit(int filmId, int userId, boolean like) {
+        long key = key(filmId, userId);
+        CompletableFuture<Void> flush;
+        lock.lock();
+        try {
+            if (!pending.containsKey(key)) {
+                awaitCapacity();
+            } else {
+                coalesced.increment();
+            }
+            pending.put(key, like);
+            flush = pendingFlush;
+        } finally {
+            lock.unlock();
+        }
+        if (durability == Durability.SYNC) {
+            awaitFlush(flush);
+        }
+    }
+
+    private void awaitCapacity() {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+        try {
+            while (pending.size() >= capacity) {
+                if (nanos <= 0) {
+                    rejected.increment();
+                    log.info("Like queue is full ({} entries)", capacity);
+                    throw new ServiceUnavailableException("Like queue is full, try again later");
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for like queue");
+        }
+    }
+
+    private void awaitFlush(CompletableFuture<Void> flush) {
+        try {
+            flush.get(syncTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for like flush");
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("Like was queued but not flushed in time");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.likes.write-behind.flush-interval-ms:200}",
+            initialDelayString = "${filmorate.likes.write-behind.flush-interval-ms:200}")
+    public void scheduledFlush() {
+        synchronized (flushLock) {
+            if (System.nanoTime() - nextFlushNanos >= 0) {
+                flush();
+            }
+        }
+    }
+
+    public void flush() {
+        synchronized (flushLock) {
+            Map<Long, Boolean> batch;
+            CompletableFuture<Void> done;
+            lock.lock();
+            try {
+                batch = pending;
+                done = pendingFlush;
+                pending = new LinkedHashMap<>();
+                pendingFlush = new CompletableFuture<>();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (batch.isEmpty()) {
+                done.complete(null);
+                return;
+            }
+            List<Like> added = new ArrayList<>();
+            List<Like> removed = new ArrayList<>();
+            for (Map.Entry<Long, Boolean> entry : batch.entrySet()) {
+                Like like = Like.builder()
+                        .filmId((int) (entry.getKey() >>> 32))
+                        .userId(entry.getKey().intValue())
+                        .build();
+                (entry.getValue() ? added : removed).add(like);
+            }
+            long start = System.nanoTime();
+            try {
+                List<Like> applied = filmStorage.applyLikes(added, removed);
+                for (Like like : applied) {
+                    if (batch.get(key(like.getFilmId(), like.getUserId()))) {
+                        likesIndex.like(like.getFilmId(), like.getUserId());
+                    } else {
+                        likesIndex.deleteLike(like.getFilmId(), like.getUserId());
+                    }
+                }
+                flushed.increment(applied.size());
+                discarded.increment(batch.size() - applied.size());
+                failedFlushes = 0;
+                nextFlushNanos = System.nanoTime();
+                done.complete(null);
+            } catch (RuntimeException e) {
+                failed.increment(batch.size());
+                failedFlushes++;
+                long delay = Math.min(maxRetryDelayMillis, retryDelayMillis << Math.min(failedFlushes, 20));
+                nextFlushNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+                log.warn("Flush of {} like changes failed, retrying in {} ms: {}", batch.size(), delay, e.getMessage());
+                requeue(batch, done);
+            } finally {
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void requeue(Map<Long, Boolean> batch, CompletableFuture<Void> done) {
+        lock.lock();
+        try {
+            Map<Long, Boolean> merged = new LinkedHashMap<>(batch);
+            merged.putAll(pending);
+            pending = merged;
+            pendingFlush.whenComplete((result, e) -> {
+                if (e == null) {
+                    done.complete(null);
+                } else {
+                    done.completeExceptionally(e);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            pending.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+        int lost = getQueueDepth();
+        if (lost > 0) {
+            log.error("{} like changes were not flushed before shutdown", lost);
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFlushedCount() {
+        return (long) flushed.count();
+    }
+
+    public long getCoalescedCount() {
+        return (long) coalesced.count();
+    }
+
+    public long getDiscardedCount() {
+        return (long) discarded.count();
+    }
+
+    public long getRejectedCount() {
+        return (long) rejected.count();
+    }
+
+    public long getFlushCount() {
+        return flushTimer.count();
+    }
+
+    private static long key(int filmId, int userId) {
+        return ((long) filmId << 32) | (userId & 0xFFFFFFFFL);
+    }
+}
@@ -4,26 +4,49 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
-import ru.yandex.practicum.filmorate.model.user.StatusFriendship;
+import ru.yandex.practicum.filmorate.model.film.Film;
 import ru.yandex.practicum.filmorate.model.user.User;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.FriendsIndex;
+import ru.yandex.practicum.filmorate.storage.LikesIndex;
+import ru.yandex.practicum.filmorate.storage.TransactionHooks;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class UserService {
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SUGGESTIONS = 100;
+    private static final int MAX_RECOMMENDATIONS = 100;
+    private static final int MAX_BATCH_DELETE = 10000;
     private final UserStorage userStorage;
     private final FilmStorage filmStorage;
+    private final Optional<FriendsIndex> friendsIndex;
+    private final FriendGraph friendGraph;
+    private final LikesIndex likesIndex;
 
     @Autowired
-    public UserService(@Qualifier("userDbStorage") UserStorage userStorage, @Qualifier("filmDbStorage") FilmStorage filmStorage) {
+    public UserService(@Qualifier("userStorage") UserStorage userStorage, @Qualifier("filmStorage") FilmStorage filmStorage,
+                       Optional<FriendsIndex> friendsIndex, FriendGraph friendGraph, LikesIndex likesIndex) {
         this.userStorage = userStorage;
         this.filmStorage = filmStorage;
+        this.friendsIndex = friendsIndex;
+        this.friendGraph = friendGraph;
+        this.likesIndex = likesIndex;
     }
 
     public User createUser(User user) {
@@ -47,22 +70,27 @@ public class UserService {
         return userStorage.getAllUsers();
     }
 
-    public void addFriend(int id1, int id2) {
-        StatusFriendship statusFriendship12 = userStorage.getStatusFriendship(id1, id2);
-        StatusFriendship statusFriendship21 = userStorage.getStatusFriendship(id2, id1);
-        if (statusFriendship21 == StatusFriendship.UNCONFIRMED) {
-            statusFriendship21 = StatusFriendship.CONFIRMED;
-            userStorage.updateStatusFriend(id2, id1, statusFriendship21);
-
-        }
-        if (statusFriendship12 == StatusFriendship.NOSTATUS) {
-            userStorage.addFriend(id1, id2, statusFriendship21 == StatusFriendship.CONFIRMED
-                    ? StatusFriendship.CONFIRMED : StatusFriendship.UNCONFIRMED);
+    public List<User> getUsersPage(int afterId, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException(String.format("Limit must be between 1 and %d", MAX_PAGE_SIZE));
         }
+        return userStorage.getUsersPage(afterId, limit);
+    }
+
+    public void streamAllUsers(Consumer<User> consumer) {
+        userStorage.streamAllUsers(consumer);
+    }
+
+    public void addFriend(int id1, int id2) {
+        userStorage.requestFriendship(id1, id2);
+        friendsIndex.ifPresent(index -> index.invalidate(id1));
+        friendGraph.addFriend(id1, id2);
     }
 
     public void deleteFriend(int id, int friendId) {
         userStorage.deleteFriend(id, friendId);
+        friendsIndex.ifPresent(index -> index.invalidate(id));
+        friendGraph.deleteFriend(id, friendId);
     }
 
     public List<User> getUsersFriends(int id) {
@@ -73,21 +101,79 @@ public class UserService {
         try {
             userStorage.isExistById(id);
             userStorage.isExistById(otherId);
+            if (friendsIndex.isPresent()) {
+                return userStorage.getUsersByIds(friendsIndex.get().getCommonFriendIds(id, otherId));
+            }
             return userStorage.getCommonFriends(id, otherId);
         } catch (NotFoundException e) {
             return Collections.EMPTY_LIST;
         }
     }
 
+    public List<User> getFriendSuggestions(int id, int limit) {
+        if (limit <= 0 || limit > MAX_SUGGESTIONS) {
+            throw new ValidationException(String.format("Limit must be between 1 and %d", MAX_SUGGESTIONS));
+        }
+        userStorage.isExistById(id);
+        int[] ids = friendGraph.suggest(id, limit);
+        Map<Integer, User> users = userStorage.getUsersByIds(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return Arrays.stream(ids)
+                .mapToObj(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public List<Film> getRecommendations(int id, int limit) {
+        if (limit <= 0 || limit > MAX_RECOMMENDATIONS) {
+            throw new ValidationException(String.format("Limit must be between 1 and %d", MAX_RECOMMENDATIONS));
+        }
+        userStorage.isExistById(id);
+        int[] ids = likesIndex.recommend(id, limit);
+        Map<Integer, Film> films = filmStorage.getFilmsByIds(ids).stream()
+                .collect(Collectors.toMap(Film::getId, Function.identity()));
+        return Arrays.stream(ids)
+                .mapToObj(films::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     public void clearAllUsers() {
         userStorage.clearAllUser();
         filmStorage.clearAllLikes();
+        likesIndex.clear();
+        friendsIndex.ifPresent(FriendsIndex::invalidateAll);
+        friendGraph.clear();
     }
 
+    @Transactional
     public void deleteUser(int id) {
-        userStorage.isExistById(id);
         filmStorage.deleteLikes(id);
         userStorage.deleteUser(id);
+        TransactionHooks.afterCommit(() -> {
+            likesIndex.deleteUser(id);
+            friendsIndex.ifPresent(FriendsIndex::invalidateAll);
+            friendGraph.deleteUser(id);
+        });
+    }
+
+    @Transactional
+    public void deleteUsers(int[] ids) {
+        if (ids.length == 0 || ids.length > MAX_BATCH_DELETE) {
+            log.info("Batch delete of {} users rejected", ids.length);
+            throw new ValidationException(String.format("Batch delete accepts from 1 to %d ids", MAX_BATCH_DELETE));
+        }
+        int[] distinct = Arrays.stream(ids).distinct().toArray();
+        filmStorage.deleteLikes(distinct);
+        userStorage.deleteUsers(distinct);
+        TransactionHooks.afterCommit(() -> {
+            for (int id : distinct) {
+                likesIndex.deleteUser(id);
+            }
+            friendGraph.deleteUsers(distinct);
+            friendsIndex.ifPresent(FriendsIndex::invalidateAll);
+        });
+        log.info("Deleted {} users", distinct.length);
     }
 
     private User rebuildUser(User user) {
@@ -0,0 +1,277 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.model.film.Like;
+import ru.yandex.practicum.filmorate.model.film.Mpa;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Slf4j
+public class CachingFilmStorage implements FilmStorage {
+    private final FilmStorage delegate;
+    private final Cache<Integer, Film> films;
+    private long generation;
+
+    public CachingFilmStorage(FilmStorage delegate, DictionaryCache dictionaryCache, MeterRegistry registry,
+                              long maxSize, Duration ttl) {
+        this.delegate = delegate;
+        this.films = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, films, "films");
+        dictionaryCache.addListener(this::invalidateAll);
+        log.info("Film cache enabled: max size {}, ttl {}", maxSize, ttl);
+    }
+
+    public CacheStats getStats() {
+        return films.stats();
+    }
+
+    public long getSize() {
+        films.cleanUp();
+        return films.estimatedSize();
+    }
+
+    public void invalidateAll() {
+        evictAll();
+        TransactionHooks.afterCommit(this::evictAll);
+    }
+
+    @Override
+    public Film createFilm(Film film) {
+        Film created = delegate.createFilm(film);
+        invalidate(created.getId());
+        return created;
+    }
+
+    @Override
+    public List<Film> createFilms(List<Film> newFilms) {
+        List<Film> created = delegate.createFilms(newFilms);
+        created.forEach(film -> invalidate(film.getId()));
+        return created;
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        try {
+            return delegate.updateFilm(film);
+        } finally {
+            invalidate(film.getId());
+        }
+    }
+
+    @Override
+    public Film getFilm(int id) {
+        return copy(films.get(id, delegate::getFilm));
+    }
+
+    @Override
+    public void filmFound(int id) {
+        if (films.getIfPresent(id) == null) {
+            delegate.filmFound(id);
+        }
+    }
+
+    @Override
+    public List<Film> getAllFilms() {
+        return delegate.getAllFilms();
+    }
+
+    @Override
+    public List<Film> getFilmsPage(int afterId, int limit) {
+        return delegate.getFilmsPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAllFilms(Consumer<Film> consumer) {
+        delegate.streamAllFilms(consumer);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return delegate.getPopularFilms(count);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count, Integer genreId, Integer year) {
+        return delegate.getPopularFilms(count, genreId, year);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(int[] ids) {
+        long stamp = stamp();
+        Map<Integer, Film> found = new HashMap<>(films.getAllPresent(
+                Arrays.stream(ids).boxed().collect(Collectors.toList())));
+        int[] missing = Arrays.stream(ids).filter(id -> !found.containsKey(id)).toArray();
+        if (missing.length > 0) {
+            List<Film> loaded = delegate.getFilmsByIds(missing);
+            loaded.forEach(film -> found.put(film.getId(), film));
+            putAll(loaded, stamp);
+        }
+        List<Film> result = new ArrayList<>(found.size());
+        for (int id : ids) {
+            Film film = found.remove(id);
+            if (film != null) {
+                result.add(copy(film));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void forEachLike(BiConsumer<Integer, Integer> consumer) {
+        delegate.forEachLike(consumer);
+    }
+
+    @Override
+    public void like(int filmId, int userId) {
+        try {
+            delegate.like(filmId, userId);
+        } finally {
+            invalidate(filmId);
+        }
+    }
+
+    @Override
+    public void deleteLike(int filmId, int userId) {
+        try {
+            delegate.deleteLike(filmId, userId);
+        } finally {
+            invalidate(filmId);
+        }
+    }
+
+    @Override
+    public List<Like> applyLikes(List<Like> added, List<Like> removed) {
+        List<Like> applied = delegate.applyLikes(added, removed);
+        applied.forEach(like -> invalidate(like.getFilmId()));
+        return applied;
+    }
+
+    @Override
+    public void deleteLikes(int userId) {
+        try {
+            delegate.deleteLikes(userId);
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void deleteLikes(int[] userIds) {
+        try {
+            delegate.deleteLikes(userIds);
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public List<Integer> reconcileLikes() {
+        List<Integer> repaired = delegate.reconcileLikes();
+        repaired.forEach(this::invalidate);
+        return repaired;
+    }
+
+    @Override
+    public void clearAllFilms() {
+        try {
+            delegate.clearAllFilms();
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void clearAllLikes() {
+        try {
+            delegate.clearAllLikes();
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void deleteFilm(int id) {
+        try {
+            delegate.deleteFilm(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public List<Genre> getGenres() {
+        return delegate.getGenres();
+    }
+
+    @Override
+    public Genre getGenreById(int id) {
+        return delegate.getGenreById(id);
+    }
+
+    @Override
+    public List<Mpa> getMpaRatings() {
+        return delegate.getMpaRatings();
+    }
+
+    @Override
+    public Mpa getMpaById(int id) {
+        return delegate.getMpaById(id);
+    }
+
+    private void invalidate(int id) {
+        evict(id);
+        TransactionHooks.afterCommit(() -> evict(id));
+    }
+
+    private synchronized void evict(int id) {
+        generation++;
+        films.invalidate(id);
+    }
+
+    private synchronized void evictAll() {
+        generation++;
+        films.invalidateAll();
+    }
+
+    private synchronized long stamp() {
+        return generation;
+    }
+
+    private synchronized void putAll(List<Film> loaded, long stamp) {
+        if (stamp == generation) {
+            loaded.forEach(film -> films.put(film.getId(), film));
+        }
+    }
+
+    private static Film copy(Film film) {
+        return Film.builder()
+                .id(film.getId())
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .mpa(film.getMpa())
+                .genres(new ArrayList<>(film.getGenres()))
+                .likes(film.getLikes())
+                .build();
+    }
+}
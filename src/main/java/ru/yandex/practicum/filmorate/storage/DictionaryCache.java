@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.mapper.GenreMapper;
+import ru.yandex.practicum.filmorate.mapper.MpaMapper;
+import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.model.film.Mpa;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Slf4j
+@Component
+public class DictionaryCache {
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile Dictionary dictionary;
+
+    @Autowired
+    public DictionaryCache(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void load() {
+        dictionary = new Dictionary(
+                jdbcTemplate.query("SELECT * FROM Genres ORDER BY genre_id", new GenreMapper()),
+                jdbcTemplate.query("SELECT * FROM Mpa ORDER BY mpa_id", new MpaMapper()));
+        log.info("Dictionaries loaded: {} genres, {} mpa", dictionary.genreList.size(), dictionary.mpaList.size());
+    }
+
+    public void invalidate() {
+        dictionary = null;
+        log.info("Dictionaries invalidated");
+        listeners.forEach(Runnable::run);
+    }
+
+    public void addListener(Runnable invalidated) {
+        listeners.add(invalidated);
+    }
+
+    public List<Genre> getGenres() {
+        return getDictionary().genreList;
+    }
+
+    public Genre getGenre(int id) {
+        Genre[] genres = getDictionary().genres;
+        return id > 0 && id < genres.length ? genres[id] : null;
+    }
+
+    public List<Mpa> getMpaRatings() {
+        return getDictionary().mpaList;
+    }
+
+    public Mpa getMpa(int id) {
+        Mpa[] mpa = getDictionary().mpa;
+        return id > 0 && id < mpa.length ? mpa[id] : null;
+    }
+
+    private Dictionary getDictionary() {
+        Dictionary current = dictionary;
+        if (current == null) {
+            synchronized (this) {
+                if (dictionary == null) {
+                    load();
+                }
+                current = dictionary;
+            }
+        }
+        return current;
+    }
+
+    private static class Dictionary {
+        private final List<Genre> genreList;
+        private final Genre[] genres;
+        private final List<Mpa> mpaList;
+        private final Mpa[] mpa;
+
+        private Dictionary(List<Genre> genreList, List<Mpa> mpaList) {
+            this.genreList = List.copyOf(genreList);
+            this.mpaList = List.copyOf(mpaList);
+            int maxGenreId = genreList.stream().mapToInt(Genre::getId).max().orElse(0);
+            genres = new Genre[maxGenreId + 1];
+            genreList.forEach(genre -> genres[genre.getId()] = genre);
+            int maxMpaId = mpaList.stream().mapToInt(Mpa::getId).max().orElse(0);
+            mpa = new Mpa[maxMpaId + 1];
+            mpaList.forEach(rating -> mpa[rating.getId()] = rating);
+        }
+    }
+}
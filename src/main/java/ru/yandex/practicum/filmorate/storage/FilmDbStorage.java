@@ -3,55 +3,62 @@ package ru.yandex.practicum.filmorate.storage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
-import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.mapper.FilmRowCallbackHandler;
 import ru.yandex.practicum.filmorate.mapper.GenreMapper;
-import ru.yandex.practicum.filmorate.mapper.MpaMapper;
 import ru.yandex.practicum.filmorate.model.film.Film;
 import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.model.film.Like;
 import ru.yandex.practicum.filmorate.model.film.Mpa;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Repository
 @Qualifier("filmDbStorage")
 public class FilmDbStorage implements FilmStorage {
-    private static final String ALL_FILMS_SQL_QUERY = "SELECT * FROM Films INNER JOIN Mpa ON Films.mpa_id=Mpa.mpa_id ";
+    private static final int FETCH_SIZE = 500;
+    private static final int BATCH_SIZE = 1000;
     private final JdbcTemplate jdbcTemplate;
+    private final DictionaryCache dictionaryCache;
 
     @Autowired
-    public FilmDbStorage(JdbcTemplate jdbcTemplate) {
+    public FilmDbStorage(JdbcTemplate jdbcTemplate, DictionaryCache dictionaryCache) {
         this.jdbcTemplate = jdbcTemplate;
+        this.dictionaryCache = dictionaryCache;
     }
 
     @Override
     public Film getFilm(int id) {
-        Film film;
-        try {
-            film = jdbcTemplate.queryForObject(ALL_FILMS_SQL_QUERY + "WHERE film_id = ?", new FilmMapper(), id);
-            film.setGenres(getGenresFilm(id));
-        } catch (EmptyResultDataAccessException e) {
+        List<Film> films = getFilmsWithCondition("WHERE film.film_id = ? ", "ORDER BY film_genre.genre_id ", id);
+        if (films.isEmpty()) {
             log.info("Film with id:{} not exists.", id);
             throw new NotFoundException(String.format("Film with id:%d is not exist", id));
         }
-        return film;
+        return films.get(0);
     }
 
     @Override
     public void filmFound(int id) {
-        try {
-            jdbcTemplate.queryForObject(ALL_FILMS_SQL_QUERY + "WHERE film_id = ?", new FilmMapper(), id);
-        } catch (EmptyResultDataAccessException e) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM Films WHERE film_id = ?)",
+                Boolean.class, id);
+        if (!Boolean.TRUE.equals(exists)) {
             log.info("Film with id:{} not exists.", id);
             throw new NotFoundException(String.format("Film with id:%d is not exist", id));
         }
@@ -63,10 +70,11 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    @Transactional
     public Film createFilm(Film film) {
         String sqlQuery = "INSERT INTO Films(name, description, releaseDate, duration, mpa_id) VALUES (?, ?, ?, ?, ?)";
         int mpaId = film.getMpa().getId();
-        getMpaById(mpaId);
+        film.setMpa(getMpaById(mpaId));
         KeyHolder keyHolder = new GeneratedKeyHolder();
         jdbcTemplate.update(connection -> {
             PreparedStatement stmt = connection.prepareStatement(sqlQuery, new String[]{"film_id"});
@@ -79,22 +87,82 @@ public class FilmDbStorage implements FilmStorage {
         }, keyHolder);
         int filmId = keyHolder.getKey().intValue();
         film.setId(filmId);
-        setFilmsGenres(film);
+        film.setLikes(0);
+        if (film.getGenres() == null) {
+            film.setGenres(new ArrayList<>());
+        }
+        setFilmsGenres(film, false);
         log.info("Create {}", film);
-        return getFilm(filmId);
+        return film;
+    }
+
+    @Override
+    @Transactional
+    public List<Film> createFilms(List<Film> films) {
+        String sqlQuery = "INSERT INTO Films(name, description, releaseDate, duration, mpa_id) VALUES (?, ?, ?, ?, ?)";
+        for (Film film : films) {
+            film.setMpa(getMpaById(film.getMpa().getId()));
+            film.setGenres(getGenresByIds(film.getGenres() == null ? new ArrayList<>() : film.getGenres()));
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(sqlQuery, new String[]{"film_id"})) {
+                for (Film film : films) {
+                    stmt.setString(1, film.getName());
+                    stmt.setString(2, film.getDescription());
+                    stmt.setDate(3, Date.valueOf(film.getReleaseDate()));
+                    stmt.setInt(4, film.getDuration());
+                    stmt.setInt(5, film.getMpa().getId());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    for (Film film : films) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("Generated keys count does not match inserted films");
+                        }
+                        film.setId(keys.getInt(1));
+                        film.setLikes(0);
+                    }
+                }
+            }
+            return null;
+        });
+        List<int[]> filmGenres = new ArrayList<>();
+        for (Film film : films) {
+            for (Genre genre : film.getGenres()) {
+                filmGenres.add(new int[]{film.getId(), genre.getId()});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO Film_Genre(film_id, genre_id) VALUES(?, ?)", filmGenres, BATCH_SIZE,
+                (stmt, filmGenre) -> {
+                    stmt.setInt(1, filmGenre[0]);
+                    stmt.setInt(2, filmGenre[1]);
+                });
+        log.info("Create {} films in batch", films.size());
+        return films;
     }
 
-    private void setFilmsGenres(Film film) {
+    private void setFilmsGenres(Film film, boolean replace) {
         int filmId = film.getId();
-        if (film.getGenres() != null) {
-            Set<Genre> genres = new TreeSet<>(Comparator.comparing(Genre::getId));
-            genres.addAll(film.getGenres());
+        List<Genre> genres = getGenresByIds(film.getGenres());
+        if (replace) {
             deleteFilmGenre(filmId);
-            for (Genre genre : genres) {
-                getGenreById(genre.getId());
-                jdbcTemplate.update("INSERT INTO Film_Genre(film_id, genre_id) VALUES(?, ?)", filmId, genre.getId());
-            }
         }
+        jdbcTemplate.batchUpdate("INSERT INTO Film_Genre(film_id, genre_id) VALUES(?, ?)", genres, genres.size(),
+                (stmt, genre) -> {
+                    stmt.setInt(1, filmId);
+                    stmt.setInt(2, genre.getId());
+                });
+        film.setGenres(genres);
+    }
+
+    private List<Genre> getGenresByIds(List<Genre> filmGenres) {
+        Set<Integer> ids = filmGenres.stream().map(Genre::getId).collect(Collectors.toCollection(TreeSet::new));
+        List<Genre> genres = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            genres.add(getGenreById(id));
+        }
+        return genres;
     }
 
     private void deleteFilmGenre(int filmId) {
@@ -102,16 +170,27 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    @Transactional
     public Film updateFilm(Film film) {
         int filmId = film.getId();
-        filmFound(filmId);
         int mpaId = film.getMpa().getId();
-        getMpaById(mpaId);
-        String sqlQuery = "UPDATE Films SET name=?, description=?, releaseDate=?, duration=?, mpa_id=? WHERE film_id=?";
-        jdbcTemplate.update(sqlQuery, film.getName(), film.getDescription(), film.getReleaseDate(),
-                film.getDuration(), mpaId, filmId);
+        film.setMpa(getMpaById(mpaId));
+        String sqlQuery = "SELECT rate FROM FINAL TABLE (UPDATE Films SET name=?, description=?, releaseDate=?, "
+                + "duration=?, mpa_id=? WHERE film_id=?)";
+        List<Integer> rates = jdbcTemplate.queryForList(sqlQuery, Integer.class, film.getName(),
+                film.getDescription(), film.getReleaseDate(), film.getDuration(), mpaId, filmId);
+        if (rates.isEmpty()) {
+            log.info("Film with id:{} not exists.", filmId);
+            throw new NotFoundException(String.format("Film with id:%d is not exist", filmId));
+        }
+        film.setLikes(rates.get(0));
+        if (film.getGenres() == null) {
+            film.setGenres(getGenresFilm(filmId));
+        } else {
+            setFilmsGenres(film, true);
+        }
         log.info("Update {}", film);
-        return updateFilmsGenre(film);
+        return film;
     }
 
     private List<Genre> getAllFilmsGenres(int filmId) {
@@ -120,88 +199,191 @@ public class FilmDbStorage implements FilmStorage {
         return filmGenres;
     }
 
-    private Film updateFilmsGenre(Film film) {
-        int filmId = film.getId();
-        if (film.getGenres() != null && film.getGenres().isEmpty()) {
-            deleteFilmGenre(filmId);
-        } else {
-            setFilmsGenres(film);
-        }
-        return getFilm(filmId);
+    private List<Film> getFilmsWithCondition(String setCondition, String setOrder, Object... args) {
+        List<Film> films = new ArrayList<>();
+        queryFilms(setCondition, setOrder, films::add, args);
+        return films;
     }
 
-    private List<Film> getFilmsWithCondition(String setCondition) {
+    private void queryFilms(String setCondition, String setOrder, Consumer<Film> consumer, Object... args) {
         final String sqlQuery = "SELECT film.film_id, film.name AS NAME, film.description, film.releaseDate, "
-                + "film.duration, film.mpa_id, mpa.mpa_name, "
+                + "film.duration, film.rate, film.mpa_id, mpa.mpa_name, "
                 + "film_genre.genre_id, genres.name AS GENRES_NAME "
                 + "FROM FILMS AS film "
                 + " LEFT OUTER JOIN mpa AS mpa ON mpa.mpa_id = film.mpa_id "
                 + "LEFT OUTER JOIN film_genre AS film_genre ON film_genre.film_id = film.film_id "
                 + "LEFT OUTER JOIN genres AS genres ON genres.genre_id = film_genre.genre_id "
                 + setCondition
-                + "ORDER BY film_id, NAME ";
-        SqlRowSet filmRows = jdbcTemplate.queryForRowSet(sqlQuery);
-        Map<Integer, Film> films = new HashMap<>();
-        while (filmRows.next()) {
-            int filmId = filmRows.getInt("film_id");
-            Film film = films.get(filmId);
-            if (film == null) {
-                Mpa mpa = new Mpa();
-                mpa.setId(filmRows.getInt("mpa_id"));
-                mpa.setName(filmRows.getString("mpa_name"));
-                film = Film.builder()
-                        .id(filmId)
-                        .name(filmRows.getString("NAME"))
-                        .description(filmRows.getString("description"))
-                        .releaseDate(filmRows.getDate("releaseDate").toLocalDate())
-                        .duration(filmRows.getInt("duration"))
-                        .mpa(mpa)
-                        .build();
-                films.put(filmId, film);
-            }
-            if (Optional.ofNullable(filmRows.getString("genre_id")).isPresent()) {
-                Genre genre = new Genre();
-                genre.setId(filmRows.getInt("genre_id"));
-                genre.setName(filmRows.getString("GENRES_NAME"));
-                film.getGenres().add(genre);
-            }
-        }
-        return films.values().stream().collect(Collectors.toList());
+                + setOrder;
+        FilmRowCallbackHandler handler = new FilmRowCallbackHandler(consumer);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(sqlQuery);
+            stmt.setFetchSize(FETCH_SIZE);
+            new ArgumentPreparedStatementSetter(args).setValues(stmt);
+            return stmt;
+        }, handler);
+        handler.finish();
     }
 
     @Override
     public List<Film> getAllFilms() {
-        return getFilmsWithCondition("");
+        return getFilmsWithCondition("", "ORDER BY film.film_id, film_genre.genre_id ");
+    }
+
+    @Override
+    public List<Film> getFilmsPage(int afterId, int limit) {
+        String setCondition = "WHERE film.film_id IN (SELECT film_id FROM Films WHERE film_id > ? "
+                + "ORDER BY film_id LIMIT ?) ";
+        return getFilmsWithCondition(setCondition, "ORDER BY film.film_id, film_genre.genre_id ", afterId, limit);
+    }
+
+    @Override
+    public void streamAllFilms(Consumer<Film> consumer) {
+        queryFilms("", "ORDER BY film.film_id, film_genre.genre_id ", consumer);
     }
 
     @Override
     public List<Film> getPopularFilms(int count) {
-        String setCondition = "WHERE film.film_id IN (SELECT film_id FROM Likes GROUP BY film_id "
-                + "ORDER BY COUNT(user_id) DESC LIMIT " + count + " )";
-        List<Film> popularFilms = getFilmsWithCondition(setCondition);
-        if (popularFilms.size() < count) {
-            List<Film> additionalFilms = getAllFilms();
-            popularFilms.removeAll(additionalFilms);
-            popularFilms.addAll(additionalFilms);
+        String setCondition = "WHERE film.film_id IN (SELECT film_id FROM Films ORDER BY rate DESC, film_id LIMIT ?) ";
+        return getFilmsWithCondition(setCondition, "ORDER BY film.rate DESC, film.film_id, film_genre.genre_id ",
+                count);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count, Integer genreId, Integer year) {
+        if (genreId == null && year == null) {
+            return getPopularFilms(count);
+        }
+        StringBuilder filter = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        if (genreId != null) {
+            filter.append("AND EXISTS (SELECT 1 FROM Film_Genre fg WHERE fg.film_id = f.film_id AND fg.genre_id = ?) ");
+            args.add(genreId);
+        }
+        if (year != null) {
+            filter.append("AND f.releaseDate >= ? AND f.releaseDate < ? ");
+            args.add(LocalDate.of(year, 1, 1));
+            args.add(LocalDate.of(year + 1, 1, 1));
+        }
+        args.add(count);
+        String setCondition = "WHERE film.film_id IN (SELECT f.film_id FROM Films f WHERE TRUE " + filter
+                + "ORDER BY f.rate DESC, f.film_id LIMIT ?) ";
+        return getFilmsWithCondition(setCondition, "ORDER BY film.rate DESC, film.film_id, film_genre.genre_id ",
+                args.toArray());
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(int[] ids) {
+        if (ids.length == 0) {
+            return new ArrayList<>();
         }
-        return popularFilms;
+        String placeholders = String.join(",", Collections.nCopies(ids.length, "?"));
+        return getFilmsWithCondition("WHERE film.film_id IN (" + placeholders + ") ",
+                "ORDER BY film.film_id, film_genre.genre_id ", Arrays.stream(ids).boxed().toArray());
+    }
+
+    @Override
+    public void forEachLike(BiConsumer<Integer, Integer> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement("SELECT film_id, user_id FROM Likes");
+            stmt.setFetchSize(FETCH_SIZE);
+            return stmt;
+        }, (RowCallbackHandler) rs -> consumer.accept(rs.getInt("film_id"), rs.getInt("user_id")));
     }
 
     @Override
+    @Transactional
     public void like(int filmId, int userId) {
         jdbcTemplate.update("INSERT INTO Likes(film_id, user_id) VALUES (?, ?)", filmId, userId);
+        jdbcTemplate.update("UPDATE Films SET rate = rate + 1 WHERE film_id=?", filmId);
     }
 
     @Override
+    @Transactional
     public void deleteLike(int filmId, int userId) {
-        jdbcTemplate.update("DELETE FROM Likes WHERE film_id=? AND user_id=?", filmId, userId);
+        if (jdbcTemplate.update("DELETE FROM Likes WHERE film_id=? AND user_id=?", filmId, userId) > 0) {
+            jdbcTemplate.update("UPDATE Films SET rate = rate - 1 WHERE film_id=?", filmId);
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<Like> applyLikes(List<Like> added, List<Like> removed) {
+        Map<Integer, Integer> rateDelta = new HashMap<>();
+        List<Like> applied = new ArrayList<>();
+        collectApplied(jdbcTemplate.batchUpdate("INSERT INTO Likes(film_id, user_id) "
+                + "SELECT f.film_id, u.user_id FROM Films f, Users u WHERE f.film_id=? AND u.user_id=? "
+                + "AND NOT EXISTS (SELECT 1 FROM Likes l WHERE l.film_id=f.film_id AND l.user_id=u.user_id)",
+                added, BATCH_SIZE, this::setLike), added, 1, rateDelta, applied);
+        collectApplied(jdbcTemplate.batchUpdate("DELETE FROM Likes WHERE film_id=? AND user_id=?",
+                removed, BATCH_SIZE, this::setLike), removed, -1, rateDelta, applied);
+        List<Map.Entry<Integer, Integer>> rates = new ArrayList<>(rateDelta.entrySet());
+        jdbcTemplate.batchUpdate("UPDATE Films SET rate = rate + ? WHERE film_id=?", rates, BATCH_SIZE,
+                (stmt, rate) -> {
+                    stmt.setInt(1, rate.getValue());
+                    stmt.setInt(2, rate.getKey());
+                });
+        return applied;
+    }
+
+    private void setLike(PreparedStatement stmt, Like like) throws SQLException {
+        stmt.setInt(1, like.getFilmId());
+        stmt.setInt(2, like.getUserId());
+    }
+
+    private void collectApplied(int[][] counts, List<Like> likes, int sign, Map<Integer, Integer> rateDelta,
+                                List<Like> applied) {
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0) {
+                    rateDelta.merge(likes.get(index).getFilmId(), sign, Integer::sum);
+                    applied.add(likes.get(index));
+                }
+                index++;
+            }
+        }
     }
 
     @Override
+    @Transactional
     public void deleteLikes(int userId) {
+        jdbcTemplate.update("UPDATE Films SET rate = rate - 1 "
+                + "WHERE film_id IN (SELECT film_id FROM Likes WHERE user_id=?)", userId);
         jdbcTemplate.update("DELETE FROM likes WHERE user_id=?", userId);
     }
 
+    @Override
+    @Transactional
+    public void deleteLikes(int[] userIds) {
+        Integer[] ids = Arrays.stream(userIds).boxed().toArray(Integer[]::new);
+        jdbcTemplate.update("UPDATE Films f SET rate = rate - "
+                + "(SELECT COUNT(*) FROM Likes l WHERE l.film_id = f.film_id AND l.user_id = ANY(?)) "
+                + "WHERE f.film_id IN (SELECT film_id FROM Likes WHERE user_id = ANY(?))", ids, ids);
+        jdbcTemplate.update("DELETE FROM Likes WHERE user_id = ANY(?)", (Object) ids);
+    }
+
+    @Override
+    public List<Integer> reconcileLikes() {
+        List<Integer> drifted = jdbcTemplate.queryForList("SELECT f.film_id FROM Films f "
+                + "LEFT JOIN (SELECT film_id, COUNT(*) AS likes FROM Likes GROUP BY film_id) l "
+                + "ON l.film_id = f.film_id WHERE f.rate <> COALESCE(l.likes, 0)", Integer.class);
+        List<Integer> repaired = new ArrayList<>();
+        int index = 0;
+        String likesCount = "(SELECT COUNT(*) FROM Likes l WHERE l.film_id = f.film_id)";
+        for (int[] batch : jdbcTemplate.batchUpdate("UPDATE Films f SET rate = " + likesCount
+                        + " WHERE f.film_id = ? AND f.rate <> " + likesCount,
+                drifted, BATCH_SIZE, (stmt, filmId) -> stmt.setInt(1, filmId))) {
+            for (int count : batch) {
+                if (count > 0) {
+                    repaired.add(drifted.get(index));
+                }
+                index++;
+            }
+        }
+        return repaired;
+    }
+
     @Override
     public void clearAllFilms() {
         jdbcTemplate.update("DELETE FROM likes");
@@ -210,8 +392,10 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    @Transactional
     public void clearAllLikes() {
         jdbcTemplate.update("DELETE FROM likes");
+        jdbcTemplate.update("UPDATE Films SET rate = 0");
     }
 
     @Override
@@ -227,15 +411,13 @@ public class FilmDbStorage implements FilmStorage {
 
     @Override
     public List<Genre> getGenres() {
-        return jdbcTemplate.query("SELECT * FROM Genres", new GenreMapper());
+        return dictionaryCache.getGenres();
     }
 
     @Override
     public Genre getGenreById(int id) {
-        Genre genre;
-        try {
-            genre = jdbcTemplate.queryForObject("SELECT * FROM Genres WHERE genre_id=?", new GenreMapper(), id);
-        } catch (EmptyResultDataAccessException e) {
+        Genre genre = dictionaryCache.getGenre(id);
+        if (genre == null) {
             log.info("Genre with id:{} not exists.", id);
             throw new NotFoundException(String.format("Genre with id:%d is not exist", id));
         }
@@ -244,15 +426,13 @@ public class FilmDbStorage implements FilmStorage {
 
     @Override
     public List<Mpa> getMpaRatings() {
-        return jdbcTemplate.query("SELECT * FROM Mpa", new MpaMapper());
+        return dictionaryCache.getMpaRatings();
     }
 
     @Override
     public Mpa getMpaById(int id) {
-        Mpa mpa;
-        try {
-            mpa = jdbcTemplate.queryForObject("SELECT * FROM Mpa WHERE mpa_id=?", new MpaMapper(), id);
-        } catch (EmptyResultDataAccessException e) {
+        Mpa mpa = dictionaryCache.getMpa(id);
+        if (mpa == null) {
             log.info("Mpa with id:{} not exists.", id);
             throw new NotFoundException(String.format("Mpa with id: %d is not exist", id));
         }
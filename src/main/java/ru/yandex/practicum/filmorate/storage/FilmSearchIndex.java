@@ -0,0 +1,244 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.film.Film;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Component
+public class FilmSearchIndex {
+    private static final int[] EMPTY = new int[0];
+    private static final String[] NO_TERMS = new String[0];
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int TITLE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final FilmStorage filmStorage;
+    private final LikesIndex likesIndex;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object buildLock = new Object();
+    private final List<Runnable> changesDuringBuild = new ArrayList<>();
+    private Field title = new Field();
+    private Field description = new Field();
+    private boolean building;
+
+    @Autowired
+    public FilmSearchIndex(@Qualifier("filmStorage") FilmStorage filmStorage, LikesIndex likesIndex) {
+        this.filmStorage = filmStorage;
+        this.likesIndex = likesIndex;
+    }
+
+    @PostConstruct
+    public void rebuildInBackground() {
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Film search index build failed: {}", e.getMessage());
+            }
+        }, "film-search-index-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void rebuild() {
+        synchronized (buildLock) {
+            long start = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                building = true;
+                changesDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Field builtTitle = new Field();
+            Field builtDescription = new Field();
+            try {
+                filmStorage.streamAllFilms(film -> {
+                    builtTitle.add(film.getId(), film.getName());
+                    builtDescription.add(film.getId(), film.getDescription());
+                });
+                builtTitle.optimize();
+                builtDescription.optimize();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (building) {
+                        title = builtTitle;
+                        description = builtDescription;
+                        changesDuringBuild.forEach(Runnable::run);
+                    }
+                    changesDuringBuild.clear();
+                    building = false;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            log.info("Film search index built: {} films, {} title terms, {} description terms in {} ms",
+                    builtTitle.terms.size(), builtTitle.postings.size(), builtDescription.postings.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    public void addFilm(Film film) {
+        change(() -> {
+            title.add(film.getId(), film.getName());
+            description.add(film.getId(), film.getDescription());
+        });
+    }
+
+    public void updateFilm(Film film) {
+        addFilm(film);
+    }
+
+    public void deleteFilm(int id) {
+        change(() -> {
+            title.remove(id);
+            description.remove(id);
+        });
+    }
+
+    public void clear() {
+        change(() -> {
+            title = new Field();
+            description = new Field();
+        });
+    }
+
+    public int[] search(String query, boolean byTitle, boolean byDescription, int limit) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0 || !byTitle && !byDescription) {
+            return EMPTY;
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap[] titleMatches = new RoaringBitmap[terms.length];
+            RoaringBitmap[] descriptionMatches = new RoaringBitmap[terms.length];
+            RoaringBitmap found = null;
+            for (int i = 0; i < terms.length; i++) {
+                boolean prefix = i == terms.length - 1 && terms[i].length() >= MIN_PREFIX_LENGTH;
+                titleMatches[i] = byTitle ? title.match(terms[i], prefix) : new RoaringBitmap();
+                descriptionMatches[i] = byDescription ? description.match(terms[i], prefix) : new RoaringBitmap();
+                RoaringBitmap termMatch = RoaringBitmap.or(titleMatches[i], descriptionMatches[i]);
+                found = found == null ? termMatch : RoaringBitmap.and(found, termMatch);
+                if (found.isEmpty()) {
+                    return EMPTY;
+                }
+            }
+            int[] ids = found.toArray();
+            int[] relevance = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                for (int term = 0; term < terms.length; term++) {
+                    if (titleMatches[term].contains(ids[i])) {
+                        relevance[i] += TITLE_WEIGHT;
+                    }
+                    if (descriptionMatches[term].contains(ids[i])) {
+                        relevance[i] += DESCRIPTION_WEIGHT;
+                    }
+                }
+            }
+            int[] likes = likesIndex.likeCounts(ids);
+            Comparator<Integer> ranking = Comparator.<Integer>comparingInt(i -> relevance[i])
+                    .thenComparingInt(i -> likes[i])
+                    .thenComparingInt(i -> -ids[i]);
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, ranking);
+            for (int i = 0; i < ids.length; i++) {
+                top.add(i);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            int[] result = new int[top.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = ids[top.poll()];
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return NO_TERMS;
+        }
+        return Arrays.stream(SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private void change(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (building) {
+                changesDuringBuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static class Field {
+        private final NavigableMap<String, RoaringBitmap> postings = new TreeMap<>();
+        private final Map<Integer, String[]> terms = new HashMap<>();
+
+        private void add(int id, String text) {
+            remove(id);
+            String[] filmTerms = tokenize(text);
+            for (String term : filmTerms) {
+                postings.computeIfAbsent(term, t -> new RoaringBitmap()).add(id);
+            }
+            terms.put(id, filmTerms);
+        }
+
+        private void remove(int id) {
+            String[] filmTerms = terms.remove(id);
+            if (filmTerms == null) {
+                return;
+            }
+            for (String term : filmTerms) {
+                RoaringBitmap ids = postings.get(term);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+
+        private RoaringBitmap match(String term, boolean prefix) {
+            if (!prefix) {
+                RoaringBitmap ids = postings.get(term);
+                return ids == null ? new RoaringBitmap() : ids;
+            }
+            return FastAggregation.or(postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                    .values().iterator());
+        }
+
+        private void optimize() {
+            postings.values().forEach(RoaringBitmap::runOptimize);
+        }
+    }
+}
@@ -2,13 +2,18 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.film.Film;
 import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.model.film.Like;
 import ru.yandex.practicum.filmorate.model.film.Mpa;
 
 import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     Film createFilm(Film film);
 
+    List<Film> createFilms(List<Film> films);
+
     Film updateFilm(Film film);
 
     Film getFilm(int id);
@@ -17,15 +22,30 @@ public interface FilmStorage {
 
     List<Film> getAllFilms();
 
+    List<Film> getFilmsPage(int afterId, int limit);
+
+    void streamAllFilms(Consumer<Film> consumer);
 
     List<Film> getPopularFilms(int count);
 
+    List<Film> getPopularFilms(int count, Integer genreId, Integer year);
+
+    List<Film> getFilmsByIds(int[] ids);
+
+    void forEachLike(BiConsumer<Integer, Integer> consumer);
+
     void like(int filmId, int userId);
 
     void deleteLike(int filmId, int userId);
 
+    List<Like> applyLikes(List<Like> added, List<Like> removed);
+
     void deleteLikes(int userId);
 
+    void deleteLikes(int[] userIds);
+
+    List<Integer> reconcileLikes();
+
     void clearAllFilms();
 
     void clearAllLikes();
@@ -0,0 +1,270 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+public class FriendGraph {
+    private static final int[] EMPTY = new int[0];
+    private static final int MIN_OVERRIDES_TO_COMPACT = 1024;
+
+    private final UserStorage userStorage;
+    private final int maxVisited;
+    private final Map<Integer, int[]> overrides = new ConcurrentHashMap<>();
+    private volatile Csr csr = new Csr(EMPTY, new int[]{0}, EMPTY);
+    private volatile int[] deleted = EMPTY;
+
+    @Autowired
+    public FriendGraph(@Qualifier("userStorage") UserStorage userStorage,
+                       @Value("${filmorate.friends.suggestions.max-visited:200000}") int maxVisited) {
+        this.userStorage = userStorage;
+        this.maxVisited = maxVisited;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        long start = System.nanoTime();
+        Csr.Builder builder = new Csr.Builder();
+        userStorage.forEachFriendship(builder::add);
+        csr = builder.build();
+        overrides.clear();
+        deleted = EMPTY;
+        log.info("Friend graph loaded: {} users, {} edges in {} ms", csr.users.length, csr.targets.length,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public int[] getFriends(int id) {
+        int[] removed = deleted;
+        int[] row = overrides.get(id);
+        return without(row != null ? row : csr.row(id), removed);
+    }
+
+    public synchronized void addFriend(int id, int friendId) {
+        int[] row = getFriends(id);
+        int index = Arrays.binarySearch(row, friendId);
+        if (index >= 0) {
+            return;
+        }
+        index = -index - 1;
+        int[] updated = new int[row.length + 1];
+        System.arraycopy(row, 0, updated, 0, index);
+        updated[index] = friendId;
+        System.arraycopy(row, index, updated, index + 1, row.length - index);
+        overrides.put(id, updated);
+        compactIfNeeded();
+    }
+
+    public synchronized void deleteFriend(int id, int friendId) {
+        int[] row = getFriends(id);
+        int index = Arrays.binarySearch(row, friendId);
+        if (index < 0) {
+            return;
+        }
+        int[] updated = new int[row.length - 1];
+        System.arraycopy(row, 0, updated, 0, index);
+        System.arraycopy(row, index + 1, updated, index, row.length - index - 1);
+        overrides.put(id, updated);
+        compactIfNeeded();
+    }
+
+    public synchronized void deleteUser(int id) {
+        int index = Arrays.binarySearch(deleted, id);
+        if (index < 0) {
+            index = -index - 1;
+            int[] updated = new int[deleted.length + 1];
+            System.arraycopy(deleted, 0, updated, 0, index);
+            updated[index] = id;
+            System.arraycopy(deleted, index, updated, index + 1, deleted.length - index);
+            deleted = updated;
+        }
+        overrides.put(id, EMPTY);
+        compactIfNeeded();
+    }
+
+    public synchronized void deleteUsers(int[] ids) {
+        int[] removed = Arrays.copyOf(deleted, deleted.length + ids.length);
+        System.arraycopy(ids, 0, removed, deleted.length, ids.length);
+        Arrays.sort(removed);
+        csr = compact(removed);
+        overrides.clear();
+        deleted = EMPTY;
+    }
+
+    public synchronized void clear() {
+        csr = new Csr(EMPTY, new int[]{0}, EMPTY);
+        overrides.clear();
+        deleted = EMPTY;
+    }
+
+    public int[] suggest(int id, int limit) {
+        int[] removed = deleted;
+        int[] friends = getFriends(id);
+        int[] candidates = new int[64];
+        int count = 0;
+        int visited = 0;
+        Csr snapshot = csr;
+        for (int friend : friends) {
+            int[] row = overrides.get(friend);
+            int from = 0;
+            int to;
+            if (row != null) {
+                to = row.length;
+            } else {
+                int index = Arrays.binarySearch(snapshot.users, friend);
+                if (index < 0) {
+                    continue;
+                }
+                row = snapshot.targets;
+                from = snapshot.offsets[index];
+                to = snapshot.offsets[index + 1];
+            }
+            for (int i = from; i < to && visited < maxVisited; i++, visited++) {
+                int candidate = row[i];
+                if (candidate != id && Arrays.binarySearch(friends, candidate) < 0
+                        && (removed.length == 0 || Arrays.binarySearch(removed, candidate) < 0)) {
+                    if (count == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, count * 2);
+                    }
+                    candidates[count++] = candidate;
+                }
+            }
+            if (visited >= maxVisited) {
+                log.debug("Suggestions for user id:{} stopped after {} edges", id, visited);
+                break;
+            }
+        }
+        Arrays.sort(candidates, 0, count);
+        PriorityQueue<Long> top = new PriorityQueue<>(limit + 1);
+        for (int i = 0; i < count; ) {
+            int j = i;
+            while (j < count && candidates[j] == candidates[i]) {
+                j++;
+            }
+            top.add(((long) (j - i) << 32) | (Integer.MAX_VALUE - candidates[i]));
+            if (top.size() > limit) {
+                top.poll();
+            }
+            i = j;
+        }
+        int[] result = new int[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = Integer.MAX_VALUE - (int) (top.poll() & 0xFFFFFFFFL);
+        }
+        return result;
+    }
+
+    private void compactIfNeeded() {
+        if (overrides.size() >= Math.max(MIN_OVERRIDES_TO_COMPACT, csr.users.length / 8)) {
+            csr = compact(deleted);
+            overrides.clear();
+            deleted = EMPTY;
+        }
+    }
+
+    private static int[] without(int[] row, int[] removed) {
+        if (removed.length == 0) {
+            return row;
+        }
+        int[] kept = null;
+        int count = 0;
+        for (int i = 0; i < row.length; i++) {
+            if (Arrays.binarySearch(removed, row[i]) >= 0) {
+                if (kept == null) {
+                    kept = Arrays.copyOf(row, row.length - 1);
+                    count = i;
+                }
+            } else if (kept != null) {
+                kept[count++] = row[i];
+            }
+        }
+        return kept == null ? row : Arrays.copyOf(kept, count);
+    }
+
+    private Csr compact(int[] removed) {
+        Csr.Builder builder = new Csr.Builder();
+        int[] users = csr.users;
+        int[] ids = new int[users.length + overrides.size()];
+        System.arraycopy(users, 0, ids, 0, users.length);
+        int count = users.length;
+        for (int id : overrides.keySet()) {
+            ids[count++] = id;
+        }
+        Arrays.sort(ids, 0, count);
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            int id = ids[i];
+            if ((i > 0 && id == previous) || Arrays.binarySearch(removed, id) >= 0) {
+                continue;
+            }
+            previous = id;
+            for (int friend : getFriends(id)) {
+                if (Arrays.binarySearch(removed, friend) < 0) {
+                    builder.add(id, friend);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static final class Csr {
+        private final int[] users;
+        private final int[] offsets;
+        private final int[] targets;
+
+        private Csr(int[] users, int[] offsets, int[] targets) {
+            this.users = users;
+            this.offsets = offsets;
+            this.targets = targets;
+        }
+
+        private int[] row(int id) {
+            int index = Arrays.binarySearch(users, id);
+            return index < 0 ? EMPTY : Arrays.copyOfRange(targets, offsets[index], offsets[index + 1]);
+        }
+
+        private static final class Builder {
+            private int[] users = new int[16];
+            private int[] offsets = new int[17];
+            private int[] targets = new int[16];
+            private int userCount;
+            private int edgeCount;
+
+            private void add(int id, int friendId) {
+                if (userCount == 0 || users[userCount - 1] != id) {
+                    if (userCount > 0 && users[userCount - 1] > id) {
+                        throw new IllegalArgumentException("Friendships must be ordered by user id");
+                    }
+                    if (userCount == users.length) {
+                        users = Arrays.copyOf(users, userCount * 2);
+                        offsets = Arrays.copyOf(offsets, userCount * 2 + 1);
+                    }
+                    users[userCount++] = id;
+                    offsets[userCount] = edgeCount;
+                }
+                if (edgeCount == targets.length) {
+                    targets = Arrays.copyOf(targets, edgeCount * 2);
+                }
+                targets[edgeCount++] = friendId;
+                offsets[userCount] = edgeCount;
+            }
+
+            private Csr build() {
+                int[] builtTargets = Arrays.copyOf(targets, edgeCount);
+                for (int i = 0; i < userCount; i++) {
+                    Arrays.sort(builtTargets, offsets[i], offsets[i + 1]);
+                }
+                return new Csr(Arrays.copyOf(users, userCount), Arrays.copyOf(offsets, userCount + 1), builtTargets);
+            }
+        }
+    }
+}
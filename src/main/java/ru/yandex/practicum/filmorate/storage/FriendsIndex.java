@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.friends-cache.enabled", havingValue = "true")
+public class FriendsIndex {
+    private final UserStorage userStorage;
+    private final Map<Integer, int[]> friends = new ConcurrentHashMap<>();
+    private long version;
+
+    @Autowired
+    public FriendsIndex(@Qualifier("userStorage") UserStorage userStorage) {
+        this.userStorage = userStorage;
+    }
+
+    public int[] getFriendIds(int id) {
+        int[] ids = friends.get(id);
+        if (ids != null) {
+            return ids;
+        }
+        long loadVersion = currentVersion();
+        ids = userStorage.getFriendIds(id);
+        store(id, ids, loadVersion);
+        return ids;
+    }
+
+    public int[] getCommonFriendIds(int id, int otherId) {
+        return IntSetMap.intersect(getFriendIds(id), getFriendIds(otherId));
+    }
+
+    public synchronized void invalidate(int id) {
+        version++;
+        friends.remove(id);
+    }
+
+    public synchronized void invalidateAll() {
+        version++;
+        friends.clear();
+    }
+
+    private synchronized long currentVersion() {
+        return version;
+    }
+
+    private synchronized void store(int id, int[] ids, long loadVersion) {
+        if (version == loadVersion) {
+            friends.put(id, ids);
+        } else {
+            log.debug("Friends of user id:{} changed while loading, not cached", id);
+        }
+    }
+}
@@ -6,33 +6,46 @@ import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.film.Film;
 import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.model.film.Like;
 import ru.yandex.practicum.filmorate.model.film.Mpa;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 public class InMemoryFilmStorage implements FilmStorage {
-    private final Map<Integer, Film> films = new HashMap<>();
-    private final Map<Integer, Set<Integer>> likes = new HashMap<>();
+    private final Map<Integer, Film> films = new ConcurrentHashMap<>();
+    private final IntSetMap likes = new IntSetMap();
+    private final IntSetMap userLikes = new IntSetMap();
 
-    private int generateId = 0;
+    private final AtomicInteger generateId = new AtomicInteger();
 
     @Override
     public Film createFilm(Film film) {
         if (film == null) {
             throw new ValidationException("Film not be null");
         }
-        film.setId(++generateId);
+        film.setId(generateId.incrementAndGet());
         films.put(film.getId(), film);
-        likes.put(film.getId(), new HashSet<>());
 
         log.info("Create {}", film);
         return film;
 
     }
 
+    @Override
+    public List<Film> createFilms(List<Film> films) {
+        for (Film film : films) {
+            createFilm(film);
+        }
+        return films;
+    }
+
     @Override
     public Film getFilm(int id) {
         Film film = films.get(id);
@@ -51,8 +64,10 @@ public class InMemoryFilmStorage implements FilmStorage {
     @Override
     public Film updateFilm(Film film) {
         int id = film.getId();
-        filmFound(id);
-        films.put(id, film);
+        if (films.replace(id, film) == null) {
+            log.info("Film with id:{} not found.", id);
+            throw new NotFoundException(String.format("Film with id: %d  is not found", id));
+        }
         log.info("Update {}", film);
         return film;
     }
@@ -62,74 +77,190 @@ public class InMemoryFilmStorage implements FilmStorage {
         return films.values().stream().collect(Collectors.toList());
     }
 
+    @Override
+    public List<Film> getFilmsPage(int afterId, int limit) {
+        return films.values().stream()
+                .filter(film -> film.getId() > afterId)
+                .sorted(Comparator.comparingInt(Film::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAllFilms(Consumer<Film> consumer) {
+        films.values().forEach(consumer);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(int[] ids) {
+        List<Film> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Film film = films.get(id);
+            if (film != null) result.add(film);
+        }
+        return result;
+    }
+
+    @Override
+    public void forEachLike(BiConsumer<Integer, Integer> consumer) {
+        likes.forEachKey(filmId -> {
+            for (int userId : likes.get(filmId)) {
+                consumer.accept(filmId, userId);
+            }
+        });
+    }
+
     @Override
     public List<Film> getPopularFilms(int count) {
+        return getPopularFilms(count, null, null);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count, Integer genreId, Integer year) {
         count = count == 0 ? 10 : count;
-        Map<Integer, Integer> map = likes.entrySet().stream()
-                .collect(Collectors.toMap(k -> k.getKey(), v -> v.getValue().size()));
+        Map<Integer, Integer> map = films.values().stream()
+                .filter(film -> genreId == null || film.getGenres() != null
+                        && film.getGenres().stream().anyMatch(genre -> genre.getId() == genreId))
+                .filter(film -> year == null || film.getReleaseDate() != null && film.getReleaseDate().getYear() == year)
+                .collect(Collectors.toMap(Film::getId, film -> likes.size(film.getId())));
 
         List<Film> listFilms = new ArrayList<>();
 
         map.entrySet().stream()
                 .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+                .map(entry -> films.get(entry.getKey()))
+                .filter(Objects::nonNull)
                 .limit(count)
-                .forEach(entry -> {
-                    listFilms.add(films.get(entry.getKey()));
-                });
+                .forEach(listFilms::add);
         return listFilms;
     }
 
     @Override
     public void like(int filmId, int userId) {
-        filmFound(filmId);
-        likes.get(filmId).add(userId);
+        withFilm(filmId, film -> {
+            likes.add(filmId, userId);
+            userLikes.add(userId, filmId);
+            film.setLikes(likes.size(filmId));
+        });
         log.info("Add like to film id:{} ", filmId);
     }
 
     @Override
     public void deleteLike(int filmId, int userId) {
-        filmFound(filmId);
-        Set<Integer> likesFilm = likes.get(filmId);
-        if (likesFilm.contains(userId)) {
-            likesFilm.remove(userId);
-            log.info("Like user id {} is delete from film id:{}", userId, filmId);
-        } else {
-            throw new NotFoundException(String.format("Film id:%s not have like user with id:%s", filmId, userId));
+        withFilm(filmId, film -> {
+            if (!likes.remove(filmId, userId)) {
+                throw new NotFoundException(String.format("Film id:%s not have like user with id:%s", filmId, userId));
+            }
+            userLikes.remove(userId, filmId);
+            film.setLikes(likes.size(filmId));
+        });
+        log.info("Like user id {} is delete from film id:{}", userId, filmId);
+    }
+
+    @Override
+    public List<Like> applyLikes(List<Like> added, List<Like> removed) {
+        List<Like> applied = new ArrayList<>();
+        for (Like like : added) {
+            films.computeIfPresent(like.getFilmId(), (id, film) -> {
+                if (likes.add(id, like.getUserId())) {
+                    userLikes.add(like.getUserId(), id);
+                    film.setLikes(likes.size(id));
+                    applied.add(like);
+                }
+                return film;
+            });
+        }
+        for (Like like : removed) {
+            films.computeIfPresent(like.getFilmId(), (id, film) -> {
+                if (likes.remove(id, like.getUserId())) {
+                    userLikes.remove(like.getUserId(), id);
+                    film.setLikes(likes.size(id));
+                    applied.add(like);
+                }
+                return film;
+            });
         }
+        return applied;
     }
 
     @Override
     public void deleteLikes(int userId) {
-        for (Set<Integer> likesFilm : likes.values()) {
-            if (likesFilm.contains(userId)) {
-                likesFilm.remove(userId);
+        deleteLikes(new int[]{userId});
+    }
+
+    @Override
+    public void deleteLikes(int[] userIds) {
+        for (int userId : userIds) {
+            for (int filmId : userLikes.removeKey(userId)) {
+                films.computeIfPresent(filmId, (id, film) -> {
+                    likes.remove(id, userId);
+                    film.setLikes(likes.size(id));
+                    return film;
+                });
             }
         }
     }
 
+    @Override
+    public List<Integer> reconcileLikes() {
+        List<Integer> repaired = new ArrayList<>();
+        for (Film film : films.values()) {
+            if (film.getLikes() != likes.size(film.getId())) {
+                updateLikes(film.getId());
+                repaired.add(film.getId());
+            }
+        }
+        return repaired;
+    }
+
     @Override
     public void clearAllFilms() {
         likes.clear();
+        userLikes.clear();
         films.clear();
-        generateId = 0;
+        generateId.set(0);
     }
 
     @Override
     public void clearAllLikes() {
         likes.clear();
+        userLikes.clear();
+        films.values().forEach(film -> film.setLikes(0));
     }
 
     @Override
     public void deleteFilm(int id) {
-        if (films.containsKey(id)) {
-            films.remove(id);
+        boolean[] removed = new boolean[1];
+        films.computeIfPresent(id, (key, film) -> {
+            for (int userId : likes.removeKey(key)) {
+                userLikes.remove(userId, key);
+            }
+            removed[0] = true;
+            return null;
+        });
+        if (removed[0]) {
             log.info("Film with id {} delete", id);
-            if (likes.containsKey(id)) likes.remove(id);
         } else {
             throw new NotFoundException(String.format("Film with id: %d not found", id));
         }
     }
 
+    private void updateLikes(int filmId) {
+        films.computeIfPresent(filmId, (id, film) -> {
+            film.setLikes(likes.size(id));
+            return film;
+        });
+    }
+
+    private void withFilm(int filmId, Consumer<Film> action) {
+        if (films.computeIfPresent(filmId, (id, film) -> {
+            action.accept(film);
+            return film;
+        }) == null) {
+            filmFound(filmId);
+        }
+    }
+
     @Override
     public List<Genre> getGenres() {
         return Collections.EMPTY_LIST;
@@ -8,19 +8,23 @@ import ru.yandex.practicum.filmorate.model.user.StatusFriendship;
 import ru.yandex.practicum.filmorate.model.user.User;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 public class InMemoryUserStorage implements UserStorage {
-    private final Map<Integer, User> users = new HashMap<>();
-    private final Map<Integer, Set<Integer>> userFriends = new HashMap<>();
-    private int generateId = 0;
+    private final Map<Integer, User> users = new ConcurrentHashMap<>();
+    private final IntSetMap userFriends = new IntSetMap();
+    private final AtomicInteger generateId = new AtomicInteger();
 
     @Override
-    public User createUser(User user) {
+    public synchronized User createUser(User user) {
         findUserByDetails(user);
-        user.setId(++generateId);
+        user.setId(generateId.incrementAndGet());
         users.put(user.getId(), user);
         log.info("Create {}", user);
         return user;
@@ -29,8 +33,10 @@ public class InMemoryUserStorage implements UserStorage {
     @Override
     public User updateUser(User user) {
         int id = user.getId();
-        isExistById(id);
-        users.put(id, user);
+        if (users.replace(id, user) == null) {
+            log.info("User with id:{} not exists.", id);
+            throw new NotFoundException(String.format("User with id: %d  is not exist", id));
+        }
         log.info("Update {}", user);
         return user;
     }
@@ -45,11 +51,25 @@ public class InMemoryUserStorage implements UserStorage {
         return users.values().stream().collect(Collectors.toList());
     }
 
+    @Override
+    public List<User> getUsersPage(int afterId, int limit) {
+        return users.values().stream()
+                .filter(user -> user.getId() > afterId)
+                .sorted(Comparator.comparingInt(User::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAllUsers(Consumer<User> consumer) {
+        users.values().forEach(consumer);
+    }
+
     @Override
     public List<User> getUsersFriends(int id) {
-        Set<Integer> friendsId = userFriends.get(id);
-        List<User> listFriends = new ArrayList<>();
-        if (friendsId == null) {
+        int[] friendsId = userFriends.get(id);
+        List<User> listFriends = new ArrayList<>(friendsId.length);
+        if (friendsId.length == 0) {
             log.info(String.format("User with id: %d not have friends!", id));
             return listFriends;
         }
@@ -62,18 +82,45 @@ public class InMemoryUserStorage implements UserStorage {
 
     @Override
     public List<User> getCommonFriends(int id, int otherId) {
-        Set<Integer> friendsId = userFriends.get(id);
-        Set<Integer> otherFriendsId = userFriends.get(otherId);
-        List<User> commonFriends = new ArrayList<>();
-        if (friendsId == null || otherFriendsId == null) {
+        int[] commonFriendsId = IntSetMap.intersect(userFriends.get(id), userFriends.get(otherId));
+        if (commonFriendsId.length == 0) {
             log.info(String.format("User with id: %d  and id:%d not have common friends!", id, otherId));
-            return commonFriends;
         }
-        for (int friendID : friendsId) {
-            if (otherFriendsId.contains(friendID))
-                commonFriends.add(getUser(friendID));
+        return getUsersByIds(commonFriendsId);
+    }
+
+    @Override
+    public int[] getFriendIds(int id) {
+        return userFriends.get(id);
+    }
+
+    @Override
+    public void forEachFriendship(BiConsumer<Integer, Integer> consumer) {
+        int[][] keys = {new int[16]};
+        int[] count = {0};
+        userFriends.forEachKey(key -> {
+            if (count[0] == keys[0].length) {
+                keys[0] = Arrays.copyOf(keys[0], count[0] * 2);
+            }
+            keys[0][count[0]++] = key;
+        });
+        int[] ids = Arrays.copyOf(keys[0], count[0]);
+        Arrays.sort(ids);
+        for (int id : ids) {
+            for (int friendId : userFriends.get(id)) {
+                consumer.accept(id, friendId);
+            }
         }
-        return commonFriends;
+    }
+
+    @Override
+    public List<User> getUsersByIds(int[] ids) {
+        List<User> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            User user = getUser(id);
+            if (user != null) result.add(user);
+        }
+        return result;
     }
 
     @Override
@@ -91,18 +138,16 @@ public class InMemoryUserStorage implements UserStorage {
         for (int i = 0; i < 2; i++) {
             int idUser = i == 0 ? id : friendId;
             int idFriend = i == 0 ? friendId : id;
-            Set<Integer> idFriends = userFriends.get(idUser);
-            if (idFriends == null) {
-                idFriends = new HashSet<>();
-                idFriends.add(idFriend);
-                userFriends.put(idUser, idFriends);
-            } else {
-                idFriends.add(friendId);
-            }
+            userFriends.add(idUser, idFriend);
         }
         log.info("User with id:{} add to friends user id:{} ", friendId, id);
     }
 
+    @Override
+    public void requestFriendship(int id, int friendId) {
+        addFriend(id, friendId, StatusFriendship.UNCONFIRMED);
+    }
+
     @Override
     public StatusFriendship getStatusFriendship(int id, int friendId) {
         return StatusFriendship.NOSTATUS;
@@ -120,18 +165,13 @@ public class InMemoryUserStorage implements UserStorage {
         for (int i = 0; i < 2; i++) {
             int idUser = i == 0 ? id : friendId;
             int idFriend = i == 0 ? friendId : id;
-            Set<Integer> idFriends = userFriends.get(idUser);
-            if (idFriends != null) {
-                if (idFriends.contains(idFriend)) {
-                    idFriends.remove(idFriend);
-                    log.info("User with id:{} is delete from friends user id:{} ", idFriend, idUser);
-                    if (idFriends.size() == 0) userFriends.remove(idUser);
-                } else {
-                    throw new NotFoundException(String.format("User with id: %d is not friends user with id: %d", idFriend, idUser));
+            if (!userFriends.remove(idUser, idFriend)) {
+                if (userFriends.size(idUser) == 0) {
+                    throw new NotFoundException(String.format("User with id: %d is not have friends", idUser));
                 }
-            } else {
-                throw new NotFoundException(String.format("User with id: %d is not have friends", idUser));
+                throw new NotFoundException(String.format("User with id: %d is not friends user with id: %d", idFriend, idUser));
             }
+            log.info("User with id:{} is delete from friends user id:{} ", idFriend, idUser);
         }
     }
 
@@ -139,25 +179,34 @@ public class InMemoryUserStorage implements UserStorage {
     public void clearAllUser() {
         userFriends.clear();
         users.clear();
-        generateId = 0;
+        generateId.set(0);
     }
 
     @Override
     public void deleteUser(int id) {
-        if (users.containsKey(id)) {
-            users.remove(id);
+        if (users.remove(id) != null) {
             log.info("User with id {} delete", id);
-            if (userFriends.containsKey(id)) {
-                for (int i : userFriends.get(id)) {
-                    userFriends.get(i).remove(id);
-                }
-                userFriends.remove(id);
+            for (int i : userFriends.removeKey(id)) {
+                userFriends.remove(i, id);
             }
         } else {
             throw new NotFoundException(String.format("Film with id: %d not found", id));
         }
     }
 
+    @Override
+    public void deleteUsers(int[] ids) {
+        for (int id : ids) {
+            if (!users.containsKey(id)) {
+                log.info("User with id:{} not found.", id);
+                throw new NotFoundException(String.format("User with id: %d  is not exist", id));
+            }
+        }
+        for (int id : Arrays.stream(ids).distinct().toArray()) {
+            deleteUser(id);
+        }
+    }
+
     private void findUserByDetails(User user) {
         Optional<User> userFound;
         String email = user.getEmail();
@@ -0,0 +1,249 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+public class IntSetMap {
+    private static final int SEGMENTS = 64;
+    private static final int SEGMENT_SHIFT = 32 - Integer.numberOfTrailingZeros(SEGMENTS);
+    private static final int[] EMPTY = new int[0];
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public IntSetMap() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    public boolean add(int key, int value) {
+        return segment(key).add(key, value);
+    }
+
+    public boolean remove(int key, int value) {
+        return segment(key).remove(key, value);
+    }
+
+    public boolean contains(int key, int value) {
+        return segment(key).contains(key, value);
+    }
+
+    public int size(int key) {
+        return segment(key).size(key);
+    }
+
+    public int[] get(int key) {
+        return segment(key).get(key);
+    }
+
+    public int[] removeKey(int key) {
+        return segment(key).removeKey(key);
+    }
+
+    public void removeValue(int value) {
+        for (Segment segment : segments) {
+            segment.removeValue(value);
+        }
+    }
+
+    public void forEachKey(IntConsumer consumer) {
+        for (Segment segment : segments) {
+            for (int key : segment.keys()) {
+                consumer.accept(key);
+            }
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public static int[] intersect(int[] first, int[] second) {
+        int[] result = new int[Math.min(first.length, second.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private Segment segment(int key) {
+        return segments[hash(key) >>> SEGMENT_SHIFT];
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Segment {
+        private int[] keys = new int[16];
+        private int[][] values = new int[16][];
+        private int[] sizes = new int[16];
+        private boolean[] used = new boolean[16];
+        private int count;
+
+        synchronized boolean add(int key, int value) {
+            int slot = find(key);
+            if (!used[slot]) {
+                if ((count + 1) * 4 > keys.length * 3) {
+                    resize();
+                    slot = find(key);
+                }
+                used[slot] = true;
+                keys[slot] = key;
+                values[slot] = new int[4];
+                sizes[slot] = 0;
+                count++;
+            }
+            int[] set = values[slot];
+            int size = sizes[slot];
+            int index = Arrays.binarySearch(set, 0, size, value);
+            if (index >= 0) {
+                return false;
+            }
+            index = -index - 1;
+            if (size == set.length) {
+                set = Arrays.copyOf(set, size + (size >> 1) + 1);
+                values[slot] = set;
+            }
+            System.arraycopy(set, index, set, index + 1, size - index);
+            set[index] = value;
+            sizes[slot] = size + 1;
+            return true;
+        }
+
+        synchronized boolean remove(int key, int value) {
+            int slot = find(key);
+            if (!used[slot]) {
+                return false;
+            }
+            int[] set = values[slot];
+            int size = sizes[slot];
+            int index = Arrays.binarySearch(set, 0, size, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(set, index + 1, set, index, size - index - 1);
+            sizes[slot] = --size;
+            if (size == 0) {
+                delete(slot);
+            } else if (size * 4 < set.length && set.length > 16) {
+                values[slot] = Arrays.copyOf(set, size * 2);
+            }
+            return true;
+        }
+
+        synchronized boolean contains(int key, int value) {
+            int slot = find(key);
+            return used[slot] && Arrays.binarySearch(values[slot], 0, sizes[slot], value) >= 0;
+        }
+
+        synchronized int size(int key) {
+            int slot = find(key);
+            return used[slot] ? sizes[slot] : 0;
+        }
+
+        synchronized int[] get(int key) {
+            int slot = find(key);
+            return used[slot] ? Arrays.copyOf(values[slot], sizes[slot]) : EMPTY;
+        }
+
+        synchronized int[] removeKey(int key) {
+            int slot = find(key);
+            if (!used[slot]) {
+                return EMPTY;
+            }
+            int[] set = Arrays.copyOf(values[slot], sizes[slot]);
+            delete(slot);
+            return set;
+        }
+
+        synchronized void removeValue(int value) {
+            for (int key : keys()) {
+                remove(key, value);
+            }
+        }
+
+        synchronized int[] keys() {
+            int[] result = new int[count];
+            int index = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (used[slot]) {
+                    result[index++] = keys[slot];
+                }
+            }
+            return result;
+        }
+
+        synchronized void clear() {
+            keys = new int[16];
+            values = new int[16][];
+            sizes = new int[16];
+            used = new boolean[16];
+            count = 0;
+        }
+
+        private int find(int key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void delete(int slot) {
+            int mask = keys.length - 1;
+            used[slot] = false;
+            values[slot] = null;
+            count--;
+            int next = (slot + 1) & mask;
+            while (used[next]) {
+                int key = keys[next];
+                int[] set = values[next];
+                int size = sizes[next];
+                used[next] = false;
+                values[next] = null;
+                int target = find(key);
+                used[target] = true;
+                keys[target] = key;
+                values[target] = set;
+                sizes[target] = size;
+                next = (next + 1) & mask;
+            }
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            int[][] oldValues = values;
+            int[] oldSizes = sizes;
+            boolean[] oldUsed = used;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2][];
+            sizes = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = find(oldKeys[i]);
+                    used[slot] = true;
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    sizes[slot] = oldSizes[i];
+                }
+            }
+        }
+    }
+}
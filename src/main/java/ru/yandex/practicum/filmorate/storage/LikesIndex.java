@@ -0,0 +1,251 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+@Slf4j
+@Component
+public class LikesIndex {
+    private static final int[] EMPTY = new int[0];
+    private static final int NEIGHBOURS = 50;
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    private final FilmStorage filmStorage;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object buildLock = new Object();
+    private final List<Runnable> changesDuringBuild = new ArrayList<>();
+    private final List<IntConsumer> listeners = new CopyOnWriteArrayList<>();
+    private final CompletableFuture<Void> built = new CompletableFuture<>();
+    private Map<Integer, RoaringBitmap> userFilms = new HashMap<>();
+    private Map<Integer, RoaringBitmap> filmUsers = new HashMap<>();
+    private boolean building;
+
+    @Autowired
+    public LikesIndex(@Qualifier("filmStorage") FilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+    }
+
+    @PostConstruct
+    public void rebuildInBackground() {
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Likes index build failed: {}", e.getMessage());
+            }
+        }, "likes-index-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void rebuild() {
+        synchronized (buildLock) {
+            long start = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                building = true;
+                changesDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Map<Integer, RoaringBitmap> builtUserFilms = new HashMap<>();
+            Map<Integer, RoaringBitmap> builtFilmUsers = new HashMap<>();
+            try {
+                filmStorage.forEachLike((filmId, userId) -> {
+                    builtUserFilms.computeIfAbsent(userId, id -> new RoaringBitmap()).add(filmId);
+                    builtFilmUsers.computeIfAbsent(filmId, id -> new RoaringBitmap()).add(userId);
+                });
+                builtUserFilms.values().forEach(RoaringBitmap::runOptimize);
+                builtFilmUsers.values().forEach(RoaringBitmap::runOptimize);
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (building) {
+                        userFilms = builtUserFilms;
+                        filmUsers = builtFilmUsers;
+                        changesDuringBuild.forEach(Runnable::run);
+                    }
+                    changesDuringBuild.clear();
+                    building = false;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            built.complete(null);
+            log.info("Likes index built: {} users, {} films in {} ms", builtUserFilms.size(), builtFilmUsers.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    public void addListener(IntConsumer filmChanged) {
+        listeners.add(filmChanged);
+    }
+
+    public CompletableFuture<Void> whenBuilt() {
+        return built;
+    }
+
+    public void like(int filmId, int userId) {
+        change(() -> {
+            userFilms.computeIfAbsent(userId, id -> new RoaringBitmap()).add(filmId);
+            filmUsers.computeIfAbsent(filmId, id -> new RoaringBitmap()).add(userId);
+        });
+        notifyListeners(filmId);
+    }
+
+    public void deleteLike(int filmId, int userId) {
+        change(() -> {
+            remove(userFilms, userId, filmId);
+            remove(filmUsers, filmId, userId);
+        });
+        notifyListeners(filmId);
+    }
+
+    public void deleteUser(int userId) {
+        int[] likedFilms = snapshot(() -> {
+            RoaringBitmap liked = userFilms.get(userId);
+            return liked == null ? EMPTY : liked.toArray();
+        });
+        change(() -> {
+            RoaringBitmap films = userFilms.remove(userId);
+            if (films != null) {
+                films.forEach((int filmId) -> remove(filmUsers, filmId, userId));
+            }
+        });
+        for (int filmId : likedFilms) {
+            notifyListeners(filmId);
+        }
+    }
+
+    public void deleteFilm(int filmId) {
+        change(() -> {
+            RoaringBitmap users = filmUsers.remove(filmId);
+            if (users != null) {
+                users.forEach((int userId) -> remove(userFilms, userId, filmId));
+            }
+        });
+        notifyListeners(filmId);
+    }
+
+    public void clear() {
+        int[] films = snapshot(() -> filmUsers.keySet().stream().mapToInt(Integer::intValue).toArray());
+        change(() -> {
+            userFilms.clear();
+            filmUsers.clear();
+        });
+        for (int filmId : films) {
+            notifyListeners(filmId);
+        }
+    }
+
+    public int likeCount(int filmId) {
+        return likeCounts(new int[]{filmId})[0];
+    }
+
+    public int[] likeCounts(int[] filmIds) {
+        lock.readLock().lock();
+        try {
+            int[] counts = new int[filmIds.length];
+            for (int i = 0; i < filmIds.length; i++) {
+                RoaringBitmap users = filmUsers.get(filmIds[i]);
+                counts[i] = users == null ? 0 : users.getCardinality();
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int[] recommend(int userId, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap mine = userFilms.get(userId);
+            if (mine == null || mine.isEmpty()) {
+                return EMPTY;
+            }
+            Iterator<RoaringBitmap> likedBy = mine.stream()
+                    .mapToObj(filmUsers::get)
+                    .filter(users -> users != null)
+                    .iterator();
+            RoaringBitmap candidates = FastAggregation.or(likedBy);
+            candidates.remove(userId);
+            IntStream others = IntStream.of(candidates.toArray());
+            if (candidates.getCardinality() >= PARALLEL_THRESHOLD) {
+                others = others.parallel();
+            }
+            long[] scored = others
+                    .mapToLong(other -> ((long) RoaringBitmap.andCardinality(mine, userFilms.get(other)) << 32)
+                            | (Integer.MAX_VALUE - other))
+                    .toArray();
+            Arrays.parallelSort(scored);
+            Map<Integer, Long> filmScores = new HashMap<>();
+            for (int i = scored.length - 1; i >= Math.max(0, scored.length - NEIGHBOURS); i--) {
+                long similarity = scored[i] >>> 32;
+                int other = Integer.MAX_VALUE - (int) (scored[i] & 0xFFFFFFFFL);
+                RoaringBitmap.andNot(userFilms.get(other), mine)
+                        .forEach((int filmId) -> filmScores.merge(filmId, similarity, Long::sum));
+            }
+            return filmScores.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .mapToInt(Map.Entry::getKey)
+                    .toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void change(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (building) {
+                changesDuringBuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int[] snapshot(Supplier<int[]> read) {
+        lock.readLock().lock();
+        try {
+            return read.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void notifyListeners(int filmId) {
+        listeners.forEach(listener -> listener.accept(filmId));
+    }
+
+    private static void remove(Map<Integer, RoaringBitmap> index, int key, int value) {
+        RoaringBitmap values = index.get(key);
+        if (values != null) {
+            values.remove(value);
+            if (values.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.model.film.Like;
+import ru.yandex.practicum.filmorate.model.film.Mpa;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+public class MeteredFilmStorage implements FilmStorage {
+    private final FilmStorage delegate;
+    private final StorageMetrics metrics;
+
+    public MeteredFilmStorage(FilmStorage delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.metrics = new StorageMetrics(registry, "film");
+    }
+
+    @Override
+    public Film createFilm(Film film) {
+        return metrics.record("createFilm", () -> delegate.createFilm(film));
+    }
+
+    @Override
+    public List<Film> createFilms(List<Film> films) {
+        return metrics.record("createFilms", () -> delegate.createFilms(films));
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        return metrics.record("updateFilm", () -> delegate.updateFilm(film));
+    }
+
+    @Override
+    public Film getFilm(int id) {
+        return metrics.record("getFilm", () -> delegate.getFilm(id));
+    }
+
+    @Override
+    public void filmFound(int id) {
+        metrics.run("filmFound", () -> delegate.filmFound(id));
+    }
+
+    @Override
+    public List<Film> getAllFilms() {
+        return metrics.record("getAllFilms", delegate::getAllFilms);
+    }
+
+    @Override
+    public List<Film> getFilmsPage(int afterId, int limit) {
+        return metrics.record("getFilmsPage", () -> delegate.getFilmsPage(afterId, limit));
+    }
+
+    @Override
+    public void streamAllFilms(Consumer<Film> consumer) {
+        metrics.stream("streamAllFilms", delegate::streamAllFilms, consumer);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return metrics.record("getPopularFilms", () -> delegate.getPopularFilms(count));
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count, Integer genreId, Integer year) {
+        return metrics.record("getPopularFilms", () -> delegate.getPopularFilms(count, genreId, year));
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(int[] ids) {
+        return metrics.record("getFilmsByIds", () -> delegate.getFilmsByIds(ids));
+    }
+
+    @Override
+    public void forEachLike(BiConsumer<Integer, Integer> consumer) {
+        metrics.run("forEachLike", () -> delegate.forEachLike(consumer));
+    }
+
+    @Override
+    public void like(int filmId, int userId) {
+        metrics.run("like", () -> delegate.like(filmId, userId));
+    }
+
+    @Override
+    public void deleteLike(int filmId, int userId) {
+        metrics.run("deleteLike", () -> delegate.deleteLike(filmId, userId));
+    }
+
+    @Override
+    public List<Like> applyLikes(List<Like> added, List<Like> removed) {
+        return metrics.record("applyLikes", () -> delegate.applyLikes(added, removed));
+    }
+
+    @Override
+    public void deleteLikes(int userId) {
+        metrics.run("deleteLikes", () -> delegate.deleteLikes(userId));
+    }
+
+    @Override
+    public void deleteLikes(int[] userIds) {
+        metrics.run("deleteLikes", () -> delegate.deleteLikes(userIds));
+    }
+
+    @Override
+    public List<Integer> reconcileLikes() {
+        return metrics.record("reconcileLikes", delegate::reconcileLikes);
+    }
+
+    @Override
+    public void clearAllFilms() {
+        metrics.run("clearAllFilms", delegate::clearAllFilms);
+    }
+
+    @Override
+    public void clearAllLikes() {
+        metrics.run("clearAllLikes", delegate::clearAllLikes);
+    }
+
+    @Override
+    public void deleteFilm(int id) {
+        metrics.run("deleteFilm", () -> delegate.deleteFilm(id));
+    }
+
+    @Override
+    public List<Genre> getGenres() {
+        return metrics.record("getGenres", delegate::getGenres);
+    }
+
+    @Override
+    public Genre getGenreById(int id) {
+        return metrics.record("getGenreById", () -> delegate.getGenreById(id));
+    }
+
+    @Override
+    public List<Mpa> getMpaRatings() {
+        return metrics.record("getMpaRatings", delegate::getMpaRatings);
+    }
+
+    @Override
+    public Mpa getMpaById(int id) {
+        return metrics.record("getMpaById", () -> delegate.getMpaById(id));
+    }
+}
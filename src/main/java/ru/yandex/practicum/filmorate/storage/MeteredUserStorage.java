@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import ru.yandex.practicum.filmorate.model.user.StatusFriendship;
+import ru.yandex.practicum.filmorate.model.user.User;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+public class MeteredUserStorage implements UserStorage {
+    private final UserStorage delegate;
+    private final StorageMetrics metrics;
+
+    public MeteredUserStorage(UserStorage delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.metrics = new StorageMetrics(registry, "user");
+    }
+
+    @Override
+    public User createUser(User user) {
+        return metrics.record("createUser", () -> delegate.createUser(user));
+    }
+
+    @Override
+    public User updateUser(User user) {
+        return metrics.record("updateUser", () -> delegate.updateUser(user));
+    }
+
+    @Override
+    public User getUser(int id) {
+        return metrics.record("getUser", () -> delegate.getUser(id));
+    }
+
+    @Override
+    public void isExistById(int id) {
+        metrics.run("isExistById", () -> delegate.isExistById(id));
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return metrics.record("getAllUsers", delegate::getAllUsers);
+    }
+
+    @Override
+    public List<User> getUsersPage(int afterId, int limit) {
+        return metrics.record("getUsersPage", () -> delegate.getUsersPage(afterId, limit));
+    }
+
+    @Override
+    public void streamAllUsers(Consumer<User> consumer) {
+        metrics.stream("streamAllUsers", delegate::streamAllUsers, consumer);
+    }
+
+    @Override
+    public void addFriend(int id, int friendId, StatusFriendship statusFriendship) {
+        metrics.run("addFriend", () -> delegate.addFriend(id, friendId, statusFriendship));
+    }
+
+    @Override
+    public void requestFriendship(int id, int friendId) {
+        metrics.run("requestFriendship", () -> delegate.requestFriendship(id, friendId));
+    }
+
+    @Override
+    public void updateStatusFriend(int id, int friendId, StatusFriendship statusFriendship) {
+        metrics.run("updateStatusFriend", () -> delegate.updateStatusFriend(id, friendId, statusFriendship));
+    }
+
+    @Override
+    public StatusFriendship getStatusFriendship(int id, int friendId) {
+        return metrics.record("getStatusFriendship", () -> delegate.getStatusFriendship(id, friendId));
+    }
+
+    @Override
+    public void deleteFriend(int id, int friendId) {
+        metrics.run("deleteFriend", () -> delegate.deleteFriend(id, friendId));
+    }
+
+    @Override
+    public List<User> getUsersFriends(int id) {
+        return metrics.record("getUsersFriends", () -> delegate.getUsersFriends(id));
+    }
+
+    @Override
+    public List<User> getCommonFriends(int id, int otherId) {
+        return metrics.record("getCommonFriends", () -> delegate.getCommonFriends(id, otherId));
+    }
+
+    @Override
+    public int[] getFriendIds(int id) {
+        return metrics.record("getFriendIds", () -> delegate.getFriendIds(id));
+    }
+
+    @Override
+    public void forEachFriendship(BiConsumer<Integer, Integer> consumer) {
+        metrics.run("forEachFriendship", () -> delegate.forEachFriendship(consumer));
+    }
+
+    @Override
+    public List<User> getUsersByIds(int[] ids) {
+        return metrics.record("getUsersByIds", () -> delegate.getUsersByIds(ids));
+    }
+
+    @Override
+    public void clearAllUser() {
+        metrics.run("clearAllUser", delegate::clearAllUser);
+    }
+
+    @Override
+    public void deleteUser(int id) {
+        metrics.run("deleteUser", () -> delegate.deleteUser(id));
+    }
+
+    @Override
+    public void deleteUsers(int[] ids) {
+        metrics.run("deleteUsers", () -> delegate.deleteUsers(ids));
+    }
+}
@@ -0,0 +1,249 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.film.Genre;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class PopularFilmsIndex {
+    private static final int[] EMPTY = new int[0];
+    private static final Executor BUILD_EXECUTOR = task -> {
+        Thread thread = new Thread(task, "popular-films-index-build");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    private final FilmStorage filmStorage;
+    private final LikesIndex likesIndex;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object buildLock = new Object();
+    private final List<Runnable> changesDuringBuild = new ArrayList<>();
+    private Partitions partitions = new Partitions();
+    private boolean building;
+    private volatile boolean ready;
+
+    @Autowired
+    public PopularFilmsIndex(@Qualifier("filmStorage") FilmStorage filmStorage, LikesIndex likesIndex) {
+        this.filmStorage = filmStorage;
+        this.likesIndex = likesIndex;
+        likesIndex.addListener(this::refreshLikes);
+    }
+
+    @PostConstruct
+    public void rebuildWhenLikesIndexIsBuilt() {
+        likesIndex.whenBuilt().thenRunAsync(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Popular films index build failed: {}", e.getMessage());
+            }
+        }, BUILD_EXECUTOR);
+    }
+
+    public void rebuild() {
+        synchronized (buildLock) {
+            long start = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                building = true;
+                changesDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Partitions built = new Partitions();
+            try {
+                filmStorage.streamAllFilms(film -> built.add(film, 0));
+                int[] ids = built.films.keySet().stream().mapToInt(Integer::intValue).toArray();
+                int[] likes = likesIndex.likeCounts(ids);
+                for (int i = 0; i < ids.length; i++) {
+                    built.setLikes(ids[i], likes[i]);
+                }
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (building) {
+                        partitions = built;
+                        changesDuringBuild.forEach(Runnable::run);
+                        ready = true;
+                    }
+                    changesDuringBuild.clear();
+                    building = false;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            log.info("Popular films index built: {} films, {} genre and {} year partitions in {} ms",
+                    built.films.size(), built.byGenre.size(), built.byYear.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void addFilm(Film film) {
+        change(() -> partitions.add(film, likesIndex.likeCount(film.getId())));
+    }
+
+    public void updateFilm(Film film) {
+        addFilm(film);
+    }
+
+    public void deleteFilm(int id) {
+        change(() -> partitions.remove(id));
+    }
+
+    public void clear() {
+        change(() -> partitions = new Partitions());
+    }
+
+    public int[] getPopularFilmIds(int count, Integer genreId, Integer year) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Long> ranking;
+            if (genreId != null && year != null) {
+                ranking = partitions.byGenreAndYear.get(genreAndYear(genreId, year));
+            } else if (genreId != null) {
+                ranking = partitions.byGenre.get(genreId);
+            } else if (year != null) {
+                ranking = partitions.byYear.get(year);
+            } else {
+                ranking = partitions.all;
+            }
+            if (ranking == null) {
+                return EMPTY;
+            }
+            int[] ids = new int[Math.min(count, ranking.size())];
+            Iterator<Long> iterator = ranking.iterator();
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = (int) (iterator.next() & 0xFFFFFFFFL);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void refreshLikes(int filmId) {
+        change(() -> partitions.setLikes(filmId, likesIndex.likeCount(filmId)));
+    }
+
+    private void change(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (building) {
+                changesDuringBuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long genreAndYear(int genreId, int year) {
+        return ((long) genreId << 32) | (year & 0xFFFFFFFFL);
+    }
+
+    private static class Entry {
+        private final Integer year;
+        private final int[] genres;
+        private int likes;
+
+        private Entry(Integer year, int[] genres, int likes) {
+            this.year = year;
+            this.genres = genres;
+            this.likes = likes;
+        }
+
+        private long rank(int id) {
+            return ((long) (Integer.MAX_VALUE - likes) << 32) | id;
+        }
+    }
+
+    private static class Partitions {
+        private final Map<Integer, Entry> films = new HashMap<>();
+        private final NavigableSet<Long> all = new TreeSet<>();
+        private final Map<Integer, NavigableSet<Long>> byGenre = new HashMap<>();
+        private final Map<Integer, NavigableSet<Long>> byYear = new HashMap<>();
+        private final Map<Long, NavigableSet<Long>> byGenreAndYear = new HashMap<>();
+
+        private void add(Film film, int likes) {
+            remove(film.getId());
+            int[] genres = film.getGenres() == null ? EMPTY
+                    : film.getGenres().stream().mapToInt(Genre::getId).distinct().toArray();
+            Integer year = film.getReleaseDate() == null ? null : film.getReleaseDate().getYear();
+            Entry entry = new Entry(year, genres, likes);
+            films.put(film.getId(), entry);
+            link(film.getId(), entry);
+        }
+
+        private void remove(int id) {
+            Entry entry = films.remove(id);
+            if (entry != null) {
+                unlink(id, entry);
+            }
+        }
+
+        private void setLikes(int id, int likes) {
+            Entry entry = films.get(id);
+            if (entry != null && entry.likes != likes) {
+                unlink(id, entry);
+                entry.likes = likes;
+                link(id, entry);
+            }
+        }
+
+        private void link(int id, Entry entry) {
+            long rank = entry.rank(id);
+            all.add(rank);
+            for (int genreId : entry.genres) {
+                byGenre.computeIfAbsent(genreId, k -> new TreeSet<>()).add(rank);
+            }
+            if (entry.year != null) {
+                byYear.computeIfAbsent(entry.year, k -> new TreeSet<>()).add(rank);
+                for (int genreId : entry.genres) {
+                    byGenreAndYear.computeIfAbsent(genreAndYear(genreId, entry.year), k -> new TreeSet<>()).add(rank);
+                }
+            }
+        }
+
+        private void unlink(int id, Entry entry) {
+            long rank = entry.rank(id);
+            all.remove(rank);
+            for (int genreId : entry.genres) {
+                removeRank(byGenre, genreId, rank);
+            }
+            if (entry.year != null) {
+                removeRank(byYear, entry.year, rank);
+                for (int genreId : entry.genres) {
+                    removeRank(byGenreAndYear, genreAndYear(genreId, entry.year), rank);
+                }
+            }
+        }
+
+        private static <K> void removeRank(Map<K, NavigableSet<Long>> partitions, K key, long rank) {
+            NavigableSet<Long> ranking = partitions.get(key);
+            if (ranking != null) {
+                ranking.remove(rank);
+                if (ranking.isEmpty()) {
+                    partitions.remove(key);
+                }
+            }
+        }
+    }
+}
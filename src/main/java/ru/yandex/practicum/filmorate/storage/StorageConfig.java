@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    public FilmStorage filmStorage(@Qualifier("filmDbStorage") FilmStorage filmDbStorage, MeterRegistry registry,
+                                   DictionaryCache dictionaryCache,
+                                   @Value("${filmorate.films.cache.max-size:10000}") long maxSize,
+                                   @Value("${filmorate.films.cache.ttl-seconds:600}") long ttlSeconds) {
+        return new CachingFilmStorage(new MeteredFilmStorage(filmDbStorage, registry), dictionaryCache, registry,
+                maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    @Bean
+    public UserStorage userStorage(@Qualifier("userDbStorage") UserStorage userDbStorage, MeterRegistry registry) {
+        return new MeteredUserStorage(userDbStorage, registry);
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+class StorageMetrics {
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry registry;
+    private final String storage;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> rows = new ConcurrentHashMap<>();
+
+    StorageMetrics(MeterRegistry registry, String storage) {
+        this.registry = registry;
+        this.storage = storage;
+    }
+
+    <T> T record(String method, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            timer(method, NO_EXCEPTION).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (result instanceof Collection) {
+                rows(method).record(((Collection<?>) result).size());
+            } else if (result instanceof int[]) {
+                rows(method).record(((int[]) result).length);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            timer(method, e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    void run(String method, Runnable call) {
+        record(method, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    <T> void stream(String method, Consumer<Consumer<T>> source, Consumer<T> consumer) {
+        long[] count = {0};
+        run(method, () -> source.accept(item -> {
+            count[0]++;
+            consumer.accept(item);
+        }));
+        rows(method).record(count[0]);
+    }
+
+    private Timer timer(String method, String exception) {
+        return timers.computeIfAbsent(method + '/' + exception, key -> Timer.builder("filmorate.storage")
+                .description("Storage method latency")
+                .tag("storage", storage)
+                .tag("method", method)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    private DistributionSummary rows(String method) {
+        return rows.computeIfAbsent(method, key -> DistributionSummary.builder("filmorate.storage.rows")
+                .description("Rows returned by storage method")
+                .tag("storage", storage)
+                .tag("method", method)
+                .register(registry));
+    }
+}
@@ -6,9 +6,11 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.mapper.UserMapper;
 import ru.yandex.practicum.filmorate.model.user.StatusFriendship;
@@ -16,12 +18,20 @@ import ru.yandex.practicum.filmorate.model.user.User;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Slf4j
 @Repository
 @Qualifier("userDbStorage")
 public class UserDbStorage implements UserStorage {
+    private static final int FETCH_SIZE = 500;
 
     private final JdbcTemplate jdbcTemplate;
 
@@ -40,17 +50,63 @@ public class UserDbStorage implements UserStorage {
         return jdbcTemplate.query("SELECT * FROM Users", new UserMapper());
     }
 
+    @Override
+    public List<User> getUsersPage(int afterId, int limit) {
+        return jdbcTemplate.query("SELECT * FROM Users WHERE user_id > ? ORDER BY user_id LIMIT ?",
+                new UserMapper(), afterId, limit);
+    }
+
+    @Override
+    public void streamAllUsers(Consumer<User> consumer) {
+        UserMapper userMapper = new UserMapper();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement("SELECT * FROM Users ORDER BY user_id");
+            stmt.setFetchSize(FETCH_SIZE);
+            return stmt;
+        }, (RowCallbackHandler) rs -> consumer.accept(userMapper.mapRow(rs, rs.getRow())));
+    }
+
     @Override
     public List<User> getUsersFriends(int id) {
         final String sqlQuery = "SELECT * FROM USERS WHERE user_id IN (SELECT friend_id FROM Friends WHERE user_id=?)";
         return jdbcTemplate.query(sqlQuery, new UserMapper(), id);
     }
 
+    @Override
+    public int[] getFriendIds(int id) {
+        return jdbcTemplate.queryForList("SELECT friend_id FROM Friends WHERE user_id=? ORDER BY friend_id",
+                Integer.class, id).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public void forEachFriendship(BiConsumer<Integer, Integer> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT user_id, friend_id FROM Friends ORDER BY user_id, friend_id");
+            stmt.setFetchSize(FETCH_SIZE);
+            return stmt;
+        }, (RowCallbackHandler) rs -> consumer.accept(rs.getInt("user_id"), rs.getInt("friend_id")));
+    }
+
     @Override
     public List<User> getCommonFriends(int id1, int id2) {
-        final String sqlQuery = "SELECT * FROM USERS WHERE user_id IN (SELECT friend_id FROM Friends WHERE user_id=?) " +
-                "INTERSECT SELECT * FROM USERS WHERE user_id IN (SELECT friend_id FROM Friends WHERE user_id=?)";
-        return jdbcTemplate.query(sqlQuery, new UserMapper(), id1, id2);
+        final String sqlQuery = "SELECT f1.friend_id FROM Friends f1 " +
+                "JOIN Friends f2 ON f2.friend_id = f1.friend_id AND f2.user_id=? " +
+                "WHERE f1.user_id=? ORDER BY f1.friend_id";
+        int[] ids = jdbcTemplate.queryForList(sqlQuery, Integer.class, id2, id1).stream()
+                .mapToInt(Integer::intValue).toArray();
+        return getUsersByIds(ids);
+    }
+
+    @Override
+    public List<User> getUsersByIds(int[] ids) {
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+        String placeholders = String.join(",", Collections.nCopies(ids.length, "?"));
+        Object[] args = Arrays.stream(ids).boxed().toArray();
+        return jdbcTemplate.query("SELECT * FROM Users WHERE user_id IN (" + placeholders + ") ORDER BY user_id",
+                new UserMapper(), args);
     }
 
     @Override
@@ -71,9 +127,9 @@ public class UserDbStorage implements UserStorage {
     }
 
     public void isExistById(int id) {
-        try {
-            getUser(id);
-        } catch (EmptyResultDataAccessException e) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM Users WHERE user_id = ?)",
+                Boolean.class, id);
+        if (!Boolean.TRUE.equals(exists)) {
             log.info("User with id:{} not exists.", id);
             throw new NotFoundException(String.format("User with id: %d  is not exist", id));
         }
@@ -96,6 +152,30 @@ public class UserDbStorage implements UserStorage {
         jdbcTemplate.update("INSERT INTO Friends (user_id, friend_id, status) VALUES (?, ?, ?)", id, friendId, status.name());
     }
 
+    @Override
+    @Transactional
+    public void requestFriendship(int id, int friendId) {
+        List<Integer> locked = jdbcTemplate.queryForList(
+                "SELECT user_id FROM Users WHERE user_id IN (?, ?) FOR UPDATE", Integer.class, id, friendId);
+        for (int userId : new int[]{id, friendId}) {
+            if (!locked.contains(userId)) {
+                log.info("User with id:{} not exists.", userId);
+                throw new NotFoundException(String.format("User with id: %d  is not exist", userId));
+            }
+        }
+        jdbcTemplate.update("MERGE INTO Friends f USING ("
+                        + "SELECT CAST(? AS INTEGER) AS user_id, CAST(? AS INTEGER) AS friend_id, "
+                        + "CASE WHEN EXISTS (SELECT 1 FROM Friends r WHERE r.user_id = ? AND r.friend_id = ?) "
+                        + "THEN 'CONFIRMED' ELSE 'UNCONFIRMED' END AS status, TRUE AS requested "
+                        + "UNION ALL SELECT ?, ?, 'CONFIRMED', FALSE FROM DUAL WHERE ? <> ?) s "
+                        + "ON f.user_id = s.user_id AND f.friend_id = s.friend_id "
+                        + "WHEN MATCHED AND NOT s.requested AND f.status = 'UNCONFIRMED' "
+                        + "THEN UPDATE SET status = 'CONFIRMED' "
+                        + "WHEN NOT MATCHED AND s.requested "
+                        + "THEN INSERT (user_id, friend_id, status) VALUES (s.user_id, s.friend_id, s.status)",
+                id, friendId, friendId, id, friendId, id, id, friendId);
+    }
+
     @Override
     public void updateStatusFriend(int id, int friendId, StatusFriendship status) {
         isExistById(id);
@@ -128,7 +208,25 @@ public class UserDbStorage implements UserStorage {
 
     @Override
     public void deleteUser(int id) {
-        isExistById(id);
-        jdbcTemplate.update("DELETE FROM Users WHERE user_id=?", id);
+        if (jdbcTemplate.update("DELETE FROM Users WHERE user_id=?", id) == 0) {
+            log.info("User with id:{} not exists.", id);
+            throw new NotFoundException(String.format("User with id: %d  is not exist", id));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void deleteUsers(int[] ids) {
+        Integer[] userIds = Arrays.stream(ids).boxed().toArray(Integer[]::new);
+        Set<Integer> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT user_id FROM Users WHERE user_id = ANY(?)", Integer.class, (Object) userIds));
+        int[] missing = Arrays.stream(ids).filter(id -> !existing.contains(id)).distinct().toArray();
+        if (missing.length > 0) {
+            log.info("Users with ids:{} not exist.", Arrays.toString(missing));
+            throw new NotFoundException(missing.length == 1
+                    ? String.format("User with id: %d  is not exist", missing[0])
+                    : String.format("Users with ids: %s are not exist", Arrays.toString(missing)));
+        }
+        jdbcTemplate.update("DELETE FROM Users WHERE user_id = ANY(?)", (Object) userIds);
     }
 }
\ No newline at end of file
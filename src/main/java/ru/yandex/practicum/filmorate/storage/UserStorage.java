@@ -4,6 +4,8 @@ import ru.yandex.practicum.filmorate.model.user.StatusFriendship;
 import ru.yandex.practicum.filmorate.model.user.User;
 
 import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     User createUser(User user);
@@ -16,8 +18,14 @@ public interface UserStorage {
 
     List<User> getAllUsers();
 
+    List<User> getUsersPage(int afterId, int limit);
+
+    void streamAllUsers(Consumer<User> consumer);
+
     void addFriend(int id, int friendId, StatusFriendship statusFriendship);
 
+    void requestFriendship(int id, int friendId);
+
     void updateStatusFriend(int id, int friendId, StatusFriendship statusFriendship);
 
     StatusFriendship getStatusFriendship(int id, int friendId);
@@ -28,7 +36,15 @@ public interface UserStorage {
 
     List<User> getCommonFriends(int id, int otherId);
 
+    int[] getFriendIds(int id);
+
+    void forEachFriendship(BiConsumer<Integer, Integer> consumer);
+
+    List<User> getUsersByIds(int[] ids);
+
     void clearAllUser();
 
     void deleteUser(int id);
+
+    void deleteUsers(int[] ids);
 }
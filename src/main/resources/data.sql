@@ -1,2 +0,0 @@
-insert into Mpa (mpa_name) values ('G'), ('PG'), ('PG-13'), ('R'), ('NC-17');
-insert into Genres (name) values ('Комедия'), ('Драма'), ('Мультфильм'), ('Триллер'), ('Документальный'), ('Боевик');
\ No newline at end of file
@@ -0,0 +1,5 @@
+ALTER TABLE Films ADD COLUMN rate INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE Films f SET rate = (SELECT COUNT(*) FROM Likes l WHERE l.film_id = f.film_id);
+
+CREATE INDEX IF NOT EXISTS films_rate_idx ON Films (rate DESC, film_id);
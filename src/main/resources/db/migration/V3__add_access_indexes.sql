@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS likes_user_id_idx ON Likes (user_id, film_id);
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.controllers.AimdLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AimdLimiterTests {
+    @Test
+    public void limitGrowsAdditivelyAndShrinksMultiplicatively() {
+        long threshold = TimeUnit.MILLISECONDS.toNanos(50);
+        AimdLimiter limiter = new AimdLimiter(4, 1, 6, threshold);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        for (int round = 0; round < 5; round++) {
+            limiter.release(threshold / 10, false);
+            assertTrue(limiter.tryAcquire());
+        }
+        assertEquals(5, limiter.getLimit());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(threshold * 2, false);
+        assertEquals(4, limiter.getLimit());
+        limiter.release(threshold * 2, true);
+        assertEquals(4, limiter.getLimit());
+        assertEquals(3, limiter.getInFlight());
+    }
+
+    @Test
+    public void limitRecoversFromMinimum() {
+        long threshold = TimeUnit.MILLISECONDS.toNanos(50);
+        AimdLimiter limiter = new AimdLimiter(1, 1, 6, threshold);
+        assertTrue(limiter.tryAcquire());
+        limiter.release(threshold * 2, false);
+        assertEquals(1, limiter.getLimit());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.release(threshold / 10, false);
+        assertEquals(2, limiter.getLimit());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+    }
+}
@@ -0,0 +1,127 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.yandex.practicum.filmorate.controllers.JdbcCallExecutor;
+import ru.yandex.practicum.filmorate.exception.ServiceUnavailableException;
+import ru.yandex.practicum.filmorate.model.film.Film;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+@ActiveProfiles("async")
+@DirtiesContext
+public class AsyncControllersTests extends FilmorateSpringTests {
+    @Autowired
+    private JdbcCallExecutor jdbcCallExecutor;
+
+    @Test
+    public void handlersRunOnJdbcExecutor() throws Exception {
+        int filmId = id(perform(post("/films")
+                .content(objectMapper.writeValueAsString(film("async")))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()));
+        int userId = id(perform(post("/users")
+                .content(objectMapper.writeValueAsString(user("async" + 1)))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()));
+        int friendId = id(perform(post("/users")
+                .content(objectMapper.writeValueAsString(user("async" + 2)))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()));
+
+        perform(put("/films/" + filmId + "/like/" + userId))
+                .andExpect(status().isOk());
+        String etag = perform(get("/films/" + filmId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likes").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        perform(get("/films/" + filmId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        perform(get("/films/popular?count=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(filmId));
+        perform(get("/films/9999"))
+                .andExpect(status().isNotFound());
+
+        perform(put("/users/" + userId + "/friends/" + friendId))
+                .andExpect(status().isOk());
+        perform(get("/users/" + userId + "/friends"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(friendId));
+        perform(get("/users/9999"))
+                .andExpect(status().isNotFound());
+        perform(get("/films/stream"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(filmId));
+
+        Film invalid = film("async");
+        invalid.setName("");
+        mockMvc.perform(post("/films")
+                        .content(objectMapper.writeValueAsString(invalid))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) jdbcCallExecutor.getExecutor();
+        assertTrue(executor.getThreadPoolExecutor().getCompletedTaskCount() >= 9);
+    }
+
+    @Test
+    public void fullQueueFailsFast() throws Exception {
+        JdbcCallExecutor executor = new JdbcCallExecutor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<Void> running = executor.run(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            CompletableFuture<String> queued = executor.supply(() -> Thread.currentThread().getName());
+            CompletableFuture<String> rejected = executor.supply(() -> "rejected");
+            ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+            assertInstanceOf(ServiceUnavailableException.class, e.getCause());
+            release.countDown();
+            running.get();
+            assertTrue(queued.get().startsWith("jdbc-"));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private ResultActions perform(RequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private int id(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsByteArray()).get("id").asInt();
+    }
+}
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.user.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+public class BatchUserDeleteTests extends FilmorateSpringTests {
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private UserDbStorage userDbStorage;
+
+    @Test
+    public void batchDeleteRemovesUsersLikesAndFriendships() throws Exception {
+        int film = filmService.createFilm(film("batch")).getId();
+        List<Integer> users = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            int user = userService.createUser(user("batch" + i)).getId();
+            users.add(user);
+            filmService.like(film, user);
+        }
+        int keeper = users.get(29);
+        userService.addFriend(keeper, users.get(0));
+        userService.addFriend(keeper, users.get(28));
+        List<Integer> doomed = users.subList(0, 20);
+        String ids = doomed.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        mockMvc.perform(delete("/users").param("ids", ids + ",9999"))
+                .andExpect(status().isNotFound());
+        assertEquals(30, userService.getAllUsers().size());
+        assertEquals(30, filmService.getFilm(film).getLikes());
+
+        mockMvc.perform(delete("/users").param("ids", ids + "," + users.get(0)))
+                .andExpect(status().isOk());
+        assertEquals(10, userService.getAllUsers().size());
+        assertEquals(10, filmService.getFilm(film).getLikes());
+        assertEquals(List.of(), filmService.reconcileLikes());
+        assertEquals(List.of(users.get(28)), userService.getUsersFriends(keeper).stream()
+                .map(User::getId).collect(Collectors.toList()));
+        mockMvc.perform(get("/users/" + users.get(0)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/users").param("ids", ""))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void rolledBackDeleteKeepsIndexes() {
+        int film = filmService.createFilm(film("batch")).getId();
+        int first = userService.createUser(user("batch" + 100)).getId();
+        int second = userService.createUser(user("batch" + 101)).getId();
+        filmService.like(film, first);
+        userService.addFriend(second, first);
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            userService.deleteUsers(new int[]{first});
+            throw new IllegalStateException("rollback");
+        }));
+        assertEquals(1, filmService.getFilm(film).getLikes());
+        assertEquals(List.of(first), userService.getUsersFriends(second).stream()
+                .map(User::getId).collect(Collectors.toList()));
+
+        userService.deleteUser(first);
+        assertEquals(0, filmService.getFilm(film).getLikes());
+        assertEquals(List.of(), userService.getUsersFriends(second));
+    }
+
+    @Test
+    public void storagesAcceptDuplicateIds() {
+        for (UserStorage storage : List.of(userDbStorage, new InMemoryUserStorage())) {
+            int first = storage.createUser(user("batch" + 200)).getId();
+            int second = storage.createUser(user("batch" + 201)).getId();
+            NotFoundException e = assertThrows(NotFoundException.class,
+                    () -> storage.deleteUsers(new int[]{first, 9999, first, 9999}));
+            assertEquals("User with id: 9999  is not exist", e.getMessage());
+
+            storage.deleteUsers(new int[]{first, second, first});
+            assertThrows(NotFoundException.class, () -> storage.isExistById(first));
+            assertThrows(NotFoundException.class, () -> storage.isExistById(second));
+        }
+    }
+}
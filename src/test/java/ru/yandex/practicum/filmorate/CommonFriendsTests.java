@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.model.user.User;
+import ru.yandex.practicum.filmorate.storage.UserDbStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+@TestPropertySource(properties = "filmorate.friends-cache.enabled=true")
+@DirtiesContext
+public class CommonFriendsTests extends FilmorateSpringTests {
+    @Autowired
+    private UserDbStorage userStorage;
+
+    @Test
+    public void cachedCommonFriendsMatchJoin() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(userService.createUser(user("common" + i)).getId());
+        }
+        int first = ids.get(0);
+        int second = ids.get(1);
+        for (int i = 2; i < 10; i++) {
+            if (i % 2 == 0) {
+                userService.addFriend(first, ids.get(i));
+            }
+            if (i % 3 == 0 || i % 2 == 0) {
+                userService.addFriend(second, ids.get(i));
+            }
+        }
+        List<Integer> expected = List.of(ids.get(2), ids.get(4), ids.get(6), ids.get(8));
+        assertEquals(expected, toIds(userStorage.getCommonFriends(first, second)));
+        assertEquals(expected, toIds(userService.getCommonFriends(first, second)));
+
+        userService.deleteFriend(first, ids.get(4));
+        userService.addFriend(first, ids.get(3));
+        expected = List.of(ids.get(2), ids.get(3), ids.get(6), ids.get(8));
+        assertEquals(expected, toIds(userStorage.getCommonFriends(first, second)));
+        assertEquals(expected, toIds(userService.getCommonFriends(first, second)));
+        assertEquals(List.of(), userService.getCommonFriends(first, ids.get(9)));
+    }
+
+    @Test
+    public void suggestionsRankedByMutualFriends() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(userService.createUser(user("common" + 100 + i)).getId());
+        }
+        int user = ids.get(0);
+        userService.addFriend(user, ids.get(1));
+        userService.addFriend(user, ids.get(2));
+        userService.addFriend(ids.get(1), ids.get(3));
+        userService.addFriend(ids.get(2), ids.get(3));
+        userService.addFriend(ids.get(2), ids.get(4));
+        userService.addFriend(ids.get(2), ids.get(1));
+        userService.addFriend(ids.get(1), user);
+        assertEquals(List.of(ids.get(3), ids.get(4)), toIds(userService.getFriendSuggestions(user, 10)));
+        assertEquals(List.of(ids.get(3)), toIds(userService.getFriendSuggestions(user, 1)));
+
+        userService.deleteFriend(user, ids.get(2));
+        assertEquals(List.of(ids.get(3)), toIds(userService.getFriendSuggestions(user, 10)));
+        userService.deleteUser(ids.get(3));
+        assertEquals(List.of(), toIds(userService.getFriendSuggestions(user, 10)));
+    }
+
+    private List<Integer> toIds(List<User> users) {
+        return users.stream().map(User::getId).collect(Collectors.toList());
+    }
+}
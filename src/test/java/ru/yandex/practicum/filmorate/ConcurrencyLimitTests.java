@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.controllers.AimdLimiter;
+import ru.yandex.practicum.filmorate.controllers.ConcurrencyLimitFilter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "spring.datasource.hikari.maximum-pool-size=2")
+@DirtiesContext
+public class ConcurrencyLimitTests extends FilmorateSpringTests {
+    @Autowired
+    private ConcurrencyLimitFilter filter;
+
+    @Test
+    public void excessRequestsAreShedPerBudget() throws Exception {
+        AimdLimiter reads = filter.getReadLimiter();
+        int held = 0;
+        while (reads.tryAcquire()) {
+            held++;
+        }
+        mockMvc.perform(get("/films"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.error").value("Service unavailable: too many concurrent read requests"));
+        mockMvc.perform(get("/mpa"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/films/1/like/1"))
+                .andExpect(status().isNotFound());
+
+        for (int i = 0; i < held; i++) {
+            reads.release(0, false);
+        }
+        mockMvc.perform(get("/films"))
+                .andExpect(status().isOk());
+        assertEquals(0, reads.getInFlight());
+        assertEquals(0, filter.getWriteLimiter().getInFlight());
+    }
+}
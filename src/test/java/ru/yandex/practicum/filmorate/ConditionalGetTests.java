@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.storage.DictionaryCache;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+public class ConditionalGetTests extends FilmorateSpringTests {
+    @Autowired
+    private DictionaryCache dictionaryCache;
+
+    @Test
+    public void unchangedFilmReturnsNotModified() throws Exception {
+        int filmId = filmService.createFilm(film("etag")).getId();
+        int otherId = filmService.createFilm(film("etag")).getId();
+        int userId = userService.createUser(user("etag")).getId();
+        String eTag = eTag("/films/" + filmId);
+        String popularETag = eTag("/films/popular");
+        mockMvc.perform(get("/films/" + filmId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/films/popular").header(HttpHeaders.IF_NONE_MATCH, popularETag))
+                .andExpect(status().isNotModified());
+
+        filmService.like(otherId, userId);
+        mockMvc.perform(get("/films/" + filmId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/films/popular").header(HttpHeaders.IF_NONE_MATCH, popularETag))
+                .andExpect(status().isOk());
+
+        filmService.like(filmId, userId);
+        mockMvc.perform(get("/films/" + filmId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+        String likedETag = eTag("/films/" + filmId);
+        assertNotEquals(eTag, likedETag);
+
+        Film film = filmService.getFilm(filmId);
+        film.setName("renamed");
+        filmService.updateFilm(film);
+        mockMvc.perform(get("/films/" + filmId).header(HttpHeaders.IF_NONE_MATCH, likedETag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void dictionariesReturnNotModified() throws Exception {
+        for (String path : new String[]{"/genres", "/genres/1", "/mpa", "/mpa/1"}) {
+            mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, eTag(path)))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+        }
+    }
+
+    @Test
+    public void reloadedDictionariesReturnNewETag() throws Exception {
+        String[] paths = {"/genres", "/genres/1", "/mpa", "/mpa/1"};
+        String[] eTags = new String[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            eTags[i] = eTag(paths[i]);
+        }
+        dictionaryCache.invalidate();
+        for (int i = 0; i < paths.length; i++) {
+            mockMvc.perform(get(paths[i]).header(HttpHeaders.IF_NONE_MATCH, eTags[i]))
+                    .andExpect(status().isOk());
+            assertNotEquals(eTags[i], eTag(paths[i]));
+        }
+    }
+
+    private String eTag(String path) throws Exception {
+        return mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
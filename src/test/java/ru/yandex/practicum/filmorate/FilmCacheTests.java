@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.storage.CachingFilmStorage;
+import ru.yandex.practicum.filmorate.storage.DictionaryCache;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.genre;
+
+public class FilmCacheTests extends FilmorateSpringTests {
+    @Autowired
+    @Qualifier("filmStorage")
+    private FilmStorage filmStorage;
+    @Autowired
+    private DictionaryCache dictionaryCache;
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    public void filmsAreServedFromCacheAndInvalidatedOnWrite() {
+        CachingFilmStorage cache = (CachingFilmStorage) filmStorage;
+        int id = filmService.createFilm(film("cached", 1, 2)).getId();
+        int second = filmService.createFilm(film("cached", 1, 2)).getId();
+
+        long hits = cache.getStats().hitCount();
+        long loads = getFilmCalls();
+        Film film = filmService.getFilm(id);
+        film.setName("changed by caller");
+        film.getGenres().clear();
+        assertEquals("cached", filmService.getFilm(id).getName());
+        assertEquals(2, filmService.getFilm(id).getGenres().size());
+        assertEquals(hits + 2, cache.getStats().hitCount());
+        assertEquals(loads + 1, getFilmCalls());
+
+        film = filmService.getFilm(id);
+        film.setName("renamed");
+        film.setGenres(List.of(genre(3)));
+        filmService.updateFilm(film);
+        Film updated = filmService.getFilm(id);
+        assertEquals("renamed", updated.getName());
+        assertEquals(List.of(3), updated.getGenres().stream().map(Genre::getId).collect(Collectors.toList()));
+
+        assertEquals(2, filmStorage.getFilmsByIds(new int[]{second, id}).size());
+        assertEquals(second, filmStorage.getFilmsByIds(new int[]{second, id}).get(0).getId());
+        assertEquals(2, cache.getSize());
+        dictionaryCache.invalidate();
+        assertEquals(0, cache.getSize());
+
+        filmService.deleteFilm(id);
+        assertThrows(NotFoundException.class, () -> filmService.getFilm(id));
+        assertEquals(cache.getStats().hitCount(), registry.get("cache.gets")
+                .tags("cache", "films", "result", "hit").functionCounter().count());
+    }
+
+    private long getFilmCalls() {
+        return registry.get("filmorate.storage")
+                .tags("storage", "film", "method", "getFilm", "exception", "none").timer().count();
+    }
+}
@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import ru.yandex.practicum.filmorate.controllers.FilmsController;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.film.Genre;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.yandex.practicum.filmorate.TestData.film;
+
+public class FilmImportTests extends FilmorateSpringTests {
+    @Autowired
+    private FilmsController filmsController;
+
+    @Test
+    public void importNdjsonAndArray() throws Exception {
+        List<Film> films = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            films.add(film("nameFilm" + i, 2, 1));
+        }
+        films.get(1).getMpa().setId(99);
+        films.get(3).setName("");
+        StringBuilder ndjson = new StringBuilder();
+        for (Film film : films) {
+            ndjson.append(objectMapper.writeValueAsString(film)).append('\n');
+        }
+        mockMvc.perform(post("/films/bulk?chunkSize=2")
+                        .content(ndjson.toString())
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(5))
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.rejectedCount").value(2))
+                .andExpect(jsonPath("$.rejected[0].index").value(1))
+                .andExpect(jsonPath("$.rejected[1].index").value(3))
+                .andExpect(jsonPath("$.chunks.length()").value(2))
+                .andExpect(jsonPath("$.chunks[0].films").value(2));
+
+        mockMvc.perform(post("/films/bulk")
+                        .content(objectMapper.writeValueAsString(List.of(film("nameFilm" + 6, 2, 1), film("nameFilm" + 7, 2, 1))))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.chunks.length()").value(1));
+
+        List<Film> stored = filmsController.getAllFilms();
+        assertEquals(List.of("nameFilm1", "nameFilm3", "nameFilm5", "nameFilm6", "nameFilm7"),
+                stored.stream().map(Film::getName).collect(Collectors.toList()));
+        Film film = filmsController.getFilm(stored.get(0).getId());
+        assertEquals(List.of(1, 2), film.getGenres().stream().map(Genre::getId).collect(Collectors.toList()));
+        assertEquals("G", film.getMpa().getName());
+    }
+
+    @Test
+    public void importRejectsBadRecordsOneByOne() throws Exception {
+        Film nullGenre = film("nameFilm" + 11, 2, 1);
+        nullGenre.getGenres().set(0, null);
+        Film longName = film("nameFilm" + 12, 2, 1);
+        longName.setName("n".repeat(150));
+        String malformed = objectMapper.writeValueAsString(film("nameFilm" + 13, 2, 1)).replace("\"duration\":100", "\"duration\":\"x\"");
+        String ndjson = String.join("\n", objectMapper.writeValueAsString(film("nameFilm" + 10, 2, 1)), malformed,
+                objectMapper.writeValueAsString(nullGenre), objectMapper.writeValueAsString(longName),
+                objectMapper.writeValueAsString(film("nameFilm" + 14, 2, 1)));
+        mockMvc.perform(post("/films/bulk?chunkSize=2")
+                        .content(ndjson)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(5))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected[*].index").value(contains(1, 2, 3)))
+                .andExpect(jsonPath("$.error").doesNotExist());
+
+        mockMvc.perform(post("/films/bulk?chunkSize=2")
+                        .content(objectMapper.writeValueAsString(film("nameFilm" + 15, 2, 1)) + "\n{\"name\": [}")
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    public void importRejectsWrongChunkSize() throws Exception {
+        mockMvc.perform(post("/films/bulk?chunkSize=0")
+                        .content("[]")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,92 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.service.FilmJsonCache;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikesIndex;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.yandex.practicum.filmorate.TestData.film;
+
+@TestPropertySource(properties = "filmorate.films.json-cache.max-bytes=1000")
+@DirtiesContext
+public class FilmJsonCacheTests extends FilmorateSpringTests {
+    @Autowired
+    private FilmJsonCache filmJsonCache;
+
+    @Test
+    public void cachedFragmentsMatchJacksonOutput() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ids.add(filmService.createFilm(createFilm(i)).getId());
+        }
+        for (int id : ids) {
+            assertEquals(objectMapper.writeValueAsString(filmService.getFilm(id)), body("/films/" + id));
+        }
+        assertTrue(filmJsonCache.getSizeInBytes() <= 1000);
+        assertTrue(filmJsonCache.getSize() < ids.size());
+
+        int id = ids.get(ids.size() - 1);
+        long hits = filmJsonCache.getHitCount();
+        body("/films/" + id);
+        assertEquals(hits + 1, filmJsonCache.getHitCount());
+
+        Film film = filmService.getFilm(id);
+        film.setName("renamed");
+        filmService.updateFilm(film);
+        assertEquals(objectMapper.writeValueAsString(filmService.getFilm(id)), body("/films/" + id));
+
+        filmService.deleteFilm(ids.get(0));
+        assertEquals(objectMapper.writeValueAsString(filmService.getPopularFilms(10)), body("/films/popular"));
+        assertEquals(objectMapper.writeValueAsString(filmService.getPopularFilms(3, 2, null)),
+                body("/films/popular?count=3&genreId=2"));
+        assertEquals("[]", body("/films/popular?year=1950"));
+    }
+
+    @Test
+    public void invalidationOnlyDropsLoadsOfTheSameFilm() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        FilmJsonCache cache = new FilmJsonCache(objectMapper, new LikesIndex(storage), 1_000_000);
+        Film film = storage.createFilm(createFilm(1));
+        cache.getFilm(film.getId(), id -> {
+            cache.invalidate(id + 1);
+            return film;
+        });
+        assertEquals(1, cache.getSize());
+
+        cache.clear();
+        cache.getFilm(film.getId(), id -> {
+            cache.invalidate(id);
+            return film;
+        });
+        assertEquals(0, cache.getSize());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    private String body(String path) throws Exception {
+        return mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private Film createFilm(int id) {
+        Film film = film("cached" + id, IntStream.rangeClosed(1, 1 + id % 3).toArray());
+        film.getMpa().setId(1 + id % 5);
+        film.setDescription("Описание фильма " + id);
+        film.setReleaseDate(LocalDate.of(2000 + id % 3, 1, 1));
+        return film;
+    }
+}
@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.film.Film;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+public class FilmSearchTests extends FilmorateSpringTests {
+    @Test
+    public void searchRanksByRelevanceThenLikes() {
+        int matrix = filmService.createFilm(createFilm("The Matrix", "Hacker learns the truth")).getId();
+        int reloaded = filmService.createFilm(createFilm("Matrix Reloaded", "Hacker returns")).getId();
+        int hackers = filmService.createFilm(createFilm("Hackers", "Teenagers and a matrix of phones")).getId();
+        int other = filmService.createFilm(createFilm("Amelie", "Paris")).getId();
+        int user = userService.createUser(user("search")).getId();
+        filmService.like(reloaded, user);
+
+        assertEquals(List.of(reloaded, matrix, hackers), toIds(filmService.searchFilms("matrix", List.of("title", "description"), 10)));
+        assertEquals(List.of(reloaded, matrix), toIds(filmService.searchFilms("MATRIX", List.of("title"), 10)));
+        assertEquals(List.of(hackers), toIds(filmService.searchFilms("matrix", List.of("description"), 10)));
+        assertEquals(List.of(hackers, reloaded, matrix), toIds(filmService.searchFilms("hack", List.of("title", "description"), 10)));
+        assertEquals(List.of(matrix), toIds(filmService.searchFilms("matrix truth", List.of("title", "description"), 10)));
+        assertEquals(List.of(reloaded), toIds(filmService.searchFilms("matrix", List.of("title", "description"), 1)));
+
+        Film updated = filmService.getFilm(other);
+        updated.setDescription("Not a matrix film");
+        filmService.updateFilm(updated);
+        filmService.deleteFilm(matrix);
+        assertEquals(List.of(reloaded, hackers, other), toIds(filmService.searchFilms("matrix", List.of("title", "description"), 10)));
+        assertEquals(List.of(), filmService.searchFilms("paris", List.of("title", "description"), 10));
+
+        assertThrows(ValidationException.class, () -> filmService.searchFilms(" ", List.of("title"), 10));
+        assertThrows(ValidationException.class, () -> filmService.searchFilms("matrix", List.of("genre"), 10));
+        assertThrows(ValidationException.class, () -> filmService.searchFilms("matrix", List.of("title"), 0));
+    }
+
+    private List<Integer> toIds(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+
+    private Film createFilm(String name, String description) {
+        Film film = film(name);
+        film.setDescription(description);
+        return film;
+    }
+}
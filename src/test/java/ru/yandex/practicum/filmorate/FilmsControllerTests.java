@@ -10,10 +10,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.yandex.practicum.filmorate.controllers.FilmsController;
+import ru.yandex.practicum.filmorate.controllers.UserController;
 import ru.yandex.practicum.filmorate.model.film.Film;
 import ru.yandex.practicum.filmorate.model.film.Genre;
 import ru.yandex.practicum.filmorate.model.film.Mpa;
+import ru.yandex.practicum.filmorate.model.user.User;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -21,6 +24,8 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -34,10 +39,13 @@ public class FilmsControllerTests {
     private ObjectMapper objectMapper;
     @Autowired
     private FilmsController filmsController;
+    @Autowired
+    private UserController userController;
 
     @AfterEach
     public void clearAll() {
         filmsController.clearAllFilms();
+        userController.clearAllUser();
     }
 
     private Film createFilm(int id) {
@@ -94,6 +102,81 @@ public class FilmsControllerTests {
         assertEquals(filmsController.getFilm(id).getName(), "nameFilm3");
     }
 
+    @Test
+    public void popularFilmsFollowLikes() throws Exception {
+        Film[] films = {createFilm(1), createFilm(2), createFilm(3)};
+        for (Film film : films) {
+            film.setDuration(100);
+            mockMvc.perform(post("/films")
+                    .content(objectMapper.writeValueAsString(film))
+                    .contentType(MediaType.APPLICATION_JSON)
+            );
+        }
+        for (int i = 1; i <= 2; i++) {
+            User user = User.builder()
+                    .login("login" + i)
+                    .email("user" + i + "@mail.ru")
+                    .name("NameUser" + i)
+                    .birthday(LocalDate.of(2000, 1, i)).build();
+            mockMvc.perform(post("/users")
+                    .content(objectMapper.writeValueAsString(user))
+                    .contentType(MediaType.APPLICATION_JSON)
+            );
+        }
+        int firstId = getFilmsId(0);
+        int thirdId = getFilmsId(2);
+        int userId1 = userController.getAllUsers().get(0).getId();
+        int userId2 = userController.getAllUsers().get(1).getId();
+        mockMvc.perform(put("/films/" + thirdId + "/like/" + userId1)).andExpect(status().isOk());
+        mockMvc.perform(put("/films/" + thirdId + "/like/" + userId2)).andExpect(status().isOk());
+        mockMvc.perform(put("/films/" + firstId + "/like/" + userId1)).andExpect(status().isOk());
+        mockMvc.perform(get("/films/popular?count=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(thirdId))
+                .andExpect(jsonPath("$[1].id").value(firstId));
+
+        mockMvc.perform(delete("/films/" + thirdId + "/like/" + userId1)).andExpect(status().isOk());
+        mockMvc.perform(delete("/films/" + thirdId + "/like/" + userId2)).andExpect(status().isOk());
+        mockMvc.perform(get("/films/popular"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(firstId));
+    }
+
+    @Test
+    public void filmsPagedAndStreamed() throws Exception {
+        Film[] films = {createFilm(1), createFilm(2), createFilm(3), createFilm(4)};
+        for (Film film : films) {
+            film.setDuration(100);
+            mockMvc.perform(post("/films")
+                    .content(objectMapper.writeValueAsString(film))
+                    .contentType(MediaType.APPLICATION_JSON)
+            );
+        }
+        int secondId = getFilmsId(1);
+        mockMvc.perform(get("/films?limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value(secondId));
+        mockMvc.perform(get("/films?afterId=" + secondId + "&limit=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(getFilmsId(2)))
+                .andExpect(jsonPath("$[0].genres[0].name").value("Комедия"));
+        mockMvc.perform(get("/films?limit=0"))
+                .andExpect(status().isBadRequest());
+
+        MvcResult result = mockMvc.perform(get("/films/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[3].name").value("nameFilm4"))
+                .andExpect(jsonPath("$[3].mpa.name").value("G"));
+    }
+
     @Test
     public void checkName() throws Exception {
         System.out.println(filmsController.getAllFilms());
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlywayBaselineTests {
+    @Test
+    public void migratesDatabaseCreatedFromPreFlywaySchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:pre-flyway;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/pre-flyway-schema.sql")).execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO Films (name, description, releaseDate, duration, mpa_id) "
+                + "VALUES ('liked', 'description', '2000-01-01', 100, 1), "
+                + "('unliked', 'description', '2000-01-01', 100, 1)");
+        jdbcTemplate.update("INSERT INTO Users (email, login, name, birthday) "
+                + "VALUES ('a@mail.ru', 'a', 'a', '2000-01-01'), ('b@mail.ru', 'b', 'b', '2000-01-01')");
+        jdbcTemplate.update("INSERT INTO Likes (film_id, user_id) VALUES (1, 1), (1, 2)");
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertThat(jdbcTemplate.queryForList("SELECT rate FROM Films ORDER BY film_id", Integer.class))
+                .containsExactly(2, 0);
+        assertThat(jdbcTemplate.queryForObject("EXPLAIN SELECT film_id FROM Films ORDER BY rate DESC, film_id",
+                String.class)).containsIgnoringCase("PUBLIC.FILMS_RATE_IDX");
+        assertThat(jdbcTemplate.queryForObject("EXPLAIN SELECT film_id FROM Likes WHERE user_id = 1",
+                String.class)).containsIgnoringCase("PUBLIC.LIKES_USER_ID_IDX");
+    }
+}
@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.user.StatusFriendship;
+import ru.yandex.practicum.filmorate.storage.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+public class FriendGraphTests {
+    private static final int USERS = 300;
+
+    @Test
+    public void suggestionsMatchNaiveCountUnderRandomUpdates() {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        Map<Integer, TreeSet<Integer>> expected = new HashMap<>();
+        for (int i = 1; i <= USERS; i++) {
+            userStorage.createUser(user("graph" + i));
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 1500; i++) {
+            int id = 1 + random.nextInt(USERS);
+            int friendId = 1 + random.nextInt(USERS);
+            if (id != friendId) {
+                userStorage.addFriend(id, friendId, StatusFriendship.UNCONFIRMED);
+                expected.computeIfAbsent(id, k -> new TreeSet<>()).add(friendId);
+                expected.computeIfAbsent(friendId, k -> new TreeSet<>()).add(id);
+            }
+        }
+        FriendGraph graph = new FriendGraph(userStorage, Integer.MAX_VALUE);
+        graph.load();
+        Set<Integer> deleted = new HashSet<>();
+        for (int i = 0; i < 5000; i++) {
+            int id = 1 + random.nextInt(USERS);
+            int friendId = 1 + random.nextInt(USERS);
+            int operation = random.nextInt(1000);
+            if (deleted.contains(id) || deleted.contains(friendId)) {
+                continue;
+            }
+            if (operation < 600 && id != friendId) {
+                graph.addFriend(id, friendId);
+                expected.computeIfAbsent(id, k -> new TreeSet<>()).add(friendId);
+            } else if (operation < 990) {
+                graph.deleteFriend(id, friendId);
+                if (expected.containsKey(id)) {
+                    expected.get(id).remove(friendId);
+                }
+            } else if (operation < 996) {
+                graph.deleteUser(id);
+                deleted.add(id);
+                expected.remove(id);
+                expected.values().forEach(friends -> friends.remove(id));
+            } else {
+                int[] ids = {id, friendId, 1 + random.nextInt(USERS)};
+                graph.deleteUsers(ids);
+                for (int removed : ids) {
+                    deleted.add(removed);
+                    expected.remove(removed);
+                    expected.values().forEach(friends -> friends.remove(removed));
+                }
+            }
+            if (i % 50 == 0) {
+                int user = 1 + random.nextInt(USERS);
+                assertArrayEquals(naiveSuggestions(expected, user, 10), graph.suggest(user, 10));
+            }
+        }
+        for (int user = 1; user <= USERS; user++) {
+            assertArrayEquals(toArray(expected.get(user)), graph.getFriends(user));
+            assertArrayEquals(naiveSuggestions(expected, user, 5), graph.suggest(user, 5));
+        }
+    }
+
+    @Test
+    public void traversalIsBounded() {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        FriendGraph graph = new FriendGraph(userStorage, 3);
+        graph.load();
+        graph.addFriend(1, 2);
+        graph.addFriend(2, 3);
+        graph.addFriend(2, 4);
+        graph.addFriend(2, 5);
+        graph.addFriend(2, 6);
+        assertEquals(3, graph.suggest(1, 10).length);
+    }
+
+    @Test
+    public void deletedUserIsFilteredUntilCompaction() {
+        FriendGraph graph = new FriendGraph(new InMemoryUserStorage(), Integer.MAX_VALUE);
+        graph.load();
+        graph.addFriend(1, 2);
+        graph.addFriend(1, 3);
+        graph.addFriend(3, 2);
+        graph.addFriend(3, 4);
+        graph.deleteUser(2);
+        assertArrayEquals(new int[]{3}, graph.getFriends(1));
+        assertArrayEquals(new int[]{4}, graph.getFriends(3));
+        assertArrayEquals(new int[0], graph.getFriends(2));
+        for (int id = 10; id < 1100; id++) {
+            graph.addFriend(id, 1);
+        }
+        assertArrayEquals(new int[]{3}, graph.getFriends(1));
+        assertArrayEquals(new int[]{4}, graph.getFriends(3));
+        assertArrayEquals(new int[]{1}, graph.getFriends(1099));
+        assertArrayEquals(new int[]{4}, graph.suggest(1, 10));
+    }
+
+    private int[] naiveSuggestions(Map<Integer, TreeSet<Integer>> graph, int id, int limit) {
+        TreeSet<Integer> friends = graph.getOrDefault(id, new TreeSet<>());
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int friend : friends) {
+            for (int candidate : graph.getOrDefault(friend, new TreeSet<>())) {
+                if (candidate != id && !friends.contains(candidate)) {
+                    counts.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+        List<Integer> ranked = new ArrayList<>(counts.keySet());
+        ranked.sort((a, b) -> counts.get(a).equals(counts.get(b)) ? Integer.compare(a, b)
+                : Integer.compare(counts.get(b), counts.get(a)));
+        return ranked.stream().limit(limit).mapToInt(Integer::intValue).toArray();
+    }
+
+    private int[] toArray(TreeSet<Integer> values) {
+        return values == null ? new int[0] : values.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.user.StatusFriendship;
+import ru.yandex.practicum.filmorate.storage.UserDbStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+public class FriendshipConcurrencyTests extends FilmorateSpringTests {
+    @Autowired
+    private UserDbStorage userStorage;
+
+    @Test
+    public void reciprocalRequestsAreConfirmedExactlyOnce() throws Exception {
+        int pairs = 20;
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < pairs * 2 + 2; i++) {
+            ids.add(userService.createUser(user("friend" + i)).getId());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < pairs; i++) {
+            int first = ids.get(2 * i);
+            int second = ids.get(2 * i + 1);
+            for (int repeat = 0; repeat < 2; repeat++) {
+                futures.add(executor.submit(() -> request(start, first, second)));
+                futures.add(executor.submit(() -> request(start, second, first)));
+            }
+        }
+        int requester = ids.get(pairs * 2);
+        int target = ids.get(pairs * 2 + 1);
+        for (int repeat = 0; repeat < 4; repeat++) {
+            futures.add(executor.submit(() -> request(start, requester, target)));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        for (int i = 0; i < pairs; i++) {
+            int first = ids.get(2 * i);
+            int second = ids.get(2 * i + 1);
+            assertEquals(StatusFriendship.CONFIRMED, userStorage.getStatusFriendship(first, second));
+            assertEquals(StatusFriendship.CONFIRMED, userStorage.getStatusFriendship(second, first));
+            assertArrayEquals(new int[]{second}, userStorage.getFriendIds(first));
+            assertArrayEquals(new int[]{first}, userStorage.getFriendIds(second));
+        }
+        assertEquals(StatusFriendship.UNCONFIRMED, userStorage.getStatusFriendship(requester, target));
+        assertEquals(StatusFriendship.NOSTATUS, userStorage.getStatusFriendship(target, requester));
+        assertArrayEquals(new int[]{target}, userStorage.getFriendIds(requester));
+
+        userService.addFriend(target, requester);
+        assertEquals(StatusFriendship.CONFIRMED, userStorage.getStatusFriendship(requester, target));
+        assertEquals(StatusFriendship.CONFIRMED, userStorage.getStatusFriendship(target, requester));
+        assertThrows(NotFoundException.class, () -> userService.addFriend(requester, 9999));
+        assertThrows(NotFoundException.class, () -> userService.addFriend(9999, requester));
+    }
+
+    private Void request(CountDownLatch start, int id, int friendId) throws InterruptedException {
+        start.await();
+        userService.addFriend(id, friendId);
+        return null;
+    }
+}
@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.user.StatusFriendship;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+public class InMemoryStorageConcurrencyTests {
+
+    private static final int THREADS = 16;
+
+    @Test
+    public void concurrentCreateFilmGivesUniqueIds() throws Exception {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < 500; i++) {
+                ids.add(filmStorage.createFilm(film("film" + i)).getId());
+            }
+        });
+        assertEquals(THREADS * 500, ids.size());
+        assertEquals(THREADS * 500, filmStorage.getAllFilms().size());
+    }
+
+    @Test
+    public void concurrentLikesAreCountedExactly() throws Exception {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        int filmsCount = 8;
+        int likesStep = 100;
+        List<Integer> filmIds = new ArrayList<>();
+        for (int i = 0; i < filmsCount; i++) {
+            filmIds.add(filmStorage.createFilm(film("film" + i)).getId());
+        }
+        List<int[]> likes = new ArrayList<>();
+        for (int i = 0; i < filmsCount; i++) {
+            for (int userId = 1; userId <= likesStep * (i + 1); userId++) {
+                likes.add(new int[]{filmIds.get(i), userId});
+                likes.add(new int[]{filmIds.get(i), userId});
+            }
+        }
+        Collections.shuffle(likes);
+        runConcurrently(THREADS, thread -> {
+            for (int i = thread; i < likes.size(); i += THREADS) {
+                filmStorage.like(likes.get(i)[0], likes.get(i)[1]);
+            }
+        });
+
+        List<Integer> popular = filmStorage.getPopularFilms(filmsCount).stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+        List<Integer> expected = new ArrayList<>(filmIds);
+        Collections.reverse(expected);
+        assertEquals(expected, popular);
+        for (int i = 0; i < filmsCount; i++) {
+            assertEquals(likesStep * (i + 1), filmStorage.getFilm(filmIds.get(i)).getLikes());
+        }
+
+        runConcurrently(THREADS, thread -> {
+            for (int i = thread; i < filmsCount * likesStep * (filmsCount + 1) / 2; i += THREADS) {
+                int film = 0;
+                int userId = i + 1;
+                while (userId > likesStep * (film + 1)) {
+                    userId -= likesStep * (film + 1);
+                    film++;
+                }
+                filmStorage.deleteLike(filmIds.get(film), userId);
+            }
+        });
+        for (int filmId : filmIds) {
+            assertThrows(NotFoundException.class, () -> filmStorage.deleteLike(filmId, 1));
+        }
+    }
+
+    @Test
+    public void likeRacingFilmDeletionLeavesNoOrphans() {
+        AtomicBoolean deleting = new AtomicBoolean();
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage() {
+            @Override
+            public void filmFound(int id) {
+                super.filmFound(id);
+                if (deleting.compareAndSet(false, true)) {
+                    deleteFilm(id);
+                }
+            }
+        };
+        int filmId = filmStorage.createFilm(film("film")).getId();
+        try {
+            filmStorage.like(filmId, 1);
+        } catch (NotFoundException ignored) {
+        }
+        filmStorage.getAllFilms().forEach(film -> filmStorage.deleteFilm(film.getId()));
+        Set<Integer> likedFilms = ConcurrentHashMap.newKeySet();
+        filmStorage.forEachLike((id, userId) -> likedFilms.add(id));
+        assertEquals(Set.of(), likedFilms);
+    }
+
+    @Test
+    public void concurrentFriendshipsAreNotLost() throws Exception {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        int usersCount = 200;
+        List<Integer> userIds = new ArrayList<>();
+        for (int i = 0; i < usersCount; i++) {
+            userIds.add(userStorage.createUser(user("login" + i)).getId());
+        }
+        int hub = userIds.get(0);
+        runConcurrently(THREADS, thread -> {
+            for (int i = 1 + thread; i < usersCount; i += THREADS) {
+                userStorage.addFriend(hub, userIds.get(i), StatusFriendship.UNCONFIRMED);
+                userStorage.addFriend(userIds.get(i), userIds.get(i == 1 ? usersCount - 1 : i - 1),
+                        StatusFriendship.UNCONFIRMED);
+            }
+        });
+        assertEquals(usersCount - 1, userStorage.getUsersFriends(hub).size());
+        for (int i = 1; i < usersCount; i++) {
+            assertEquals(3, userStorage.getUsersFriends(userIds.get(i)).size());
+        }
+    }
+
+    @Test
+    public void likesAreRemovedThroughReverseIndex() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        int first = storage.createFilm(film("film1")).getId();
+        int second = storage.createFilm(film("film2")).getId();
+        storage.like(first, 1);
+        storage.like(first, 2);
+        storage.like(second, 1);
+        storage.deleteLikes(new int[]{1});
+        assertEquals(1, storage.getFilm(first).getLikes());
+        assertEquals(0, storage.getFilm(second).getLikes());
+        storage.deleteFilm(first);
+        storage.like(second, 2);
+        storage.deleteLikes(2);
+        assertEquals(0, storage.getFilm(second).getLikes());
+    }
+
+    private void runConcurrently(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+    }
+
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.IntSetMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class IntSetMapTests {
+
+    @Test
+    public void matchesBoxedMapUnderRandomOperations() {
+        IntSetMap map = new IntSetMap();
+        Map<Integer, TreeSet<Integer>> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            int key = 1 + random.nextInt(2000);
+            int value = 1 + random.nextInt(100);
+            int operation = random.nextInt(10);
+            if (operation < 6) {
+                assertEquals(expected.computeIfAbsent(key, k -> new TreeSet<>()).add(value), map.add(key, value));
+            } else if (operation < 9) {
+                TreeSet<Integer> values = expected.get(key);
+                boolean removed = values != null && values.remove(value);
+                if (values != null && values.isEmpty()) {
+                    expected.remove(key);
+                }
+                assertEquals(removed, map.remove(key, value));
+            } else {
+                TreeSet<Integer> values = expected.remove(key);
+                assertArrayEquals(toArray(values), map.removeKey(key));
+            }
+        }
+        for (int key = 1; key <= 2000; key++) {
+            assertArrayEquals(toArray(expected.get(key)), map.get(key));
+        }
+        int[] keys = {0};
+        map.forEachKey(key -> keys[0]++);
+        assertEquals(expected.size(), keys[0]);
+    }
+
+    @Test
+    public void intersectSortedSets() {
+        assertArrayEquals(new int[]{3, 7, 9}, IntSetMap.intersect(new int[]{1, 3, 5, 7, 9}, new int[]{2, 3, 7, 8, 9, 10}));
+        assertArrayEquals(new int[0], IntSetMap.intersect(new int[]{1, 2}, new int[0]));
+    }
+
+    private int[] toArray(TreeSet<Integer> values) {
+        return values == null ? new int[0] : values.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
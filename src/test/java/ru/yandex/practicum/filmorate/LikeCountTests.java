@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.service.LikeCountReconciler;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+public class LikeCountTests extends FilmorateSpringTests {
+    @Autowired
+    private LikeCountReconciler reconciler;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void likeCountFollowsLikesAndDriftIsRepaired() throws Exception {
+        int film = filmService.createFilm(film("first")).getId();
+        int other = filmService.createFilm(film("second")).getId();
+        int user = userService.createUser(user("liker" + 1)).getId();
+        int friend = userService.createUser(user("liker" + 2)).getId();
+        assertEquals(0, filmService.getFilm(film).getLikes());
+        expectLikes(film, 0);
+
+        filmService.like(film, user);
+        filmService.like(film, friend);
+        filmService.like(other, user);
+        assertEquals(2, filmService.getFilm(film).getLikes());
+        expectLikes(film, 2);
+        mockMvc.perform(get("/films/popular?count=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(film))
+                .andExpect(jsonPath("$[0].likes").value(2));
+
+        filmService.deleteLike(film, friend);
+        expectLikes(film, 1);
+        Film updated = filmService.getFilm(film);
+        updated.setName("renamed");
+        assertEquals(1, filmService.updateFilm(updated).getLikes());
+
+        userService.deleteUser(user);
+        expectLikes(film, 0);
+        assertEquals(0, filmService.getFilm(other).getLikes());
+
+        filmService.like(other, friend);
+        jdbcTemplate.update("UPDATE Films SET rate = 7 WHERE film_id = ?", film);
+        jdbcTemplate.update("UPDATE Films SET rate = 0 WHERE film_id = ?", other);
+        assertEquals(List.of(film, other), filmService.reconcileLikes());
+        expectLikes(film, 0);
+        expectLikes(other, 1);
+        reconciler.reconcile();
+        assertEquals(List.of(), filmService.reconcileLikes());
+    }
+
+    private void expectLikes(int id, int likes) throws Exception {
+        mockMvc.perform(get("/films/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likes").value(likes));
+    }
+}
@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ServiceUnavailableException;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.film.Like;
+import ru.yandex.practicum.filmorate.service.LikeWriteBehindBuffer;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikesIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+@TestPropertySource(properties = {
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.likes.write-behind.capacity=6",
+        "filmorate.likes.write-behind.offer-timeout-ms=10",
+        "filmorate.likes.write-behind.flush-interval-ms=3600000"
+})
+@DirtiesContext
+public class LikeWriteBehindTests extends FilmorateSpringTests {
+    @Autowired
+    private LikeWriteBehindBuffer likeBuffer;
+    @Autowired
+    private LikesIndex likesIndex;
+
+    @Test
+    public void likesAreCoalescedAndFlushedInBatches() {
+        List<Integer> films = new ArrayList<>();
+        List<Integer> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            films.add(filmService.createFilm(film("buffered" + i)).getId());
+        }
+        for (int i = 0; i < 7; i++) {
+            users.add(userService.createUser(user("buffered" + i)).getId());
+        }
+        filmService.like(films.get(2), users.get(0));
+        filmService.like(films.get(2), users.get(1));
+        filmService.like(films.get(1), users.get(0));
+        filmService.like(films.get(0), users.get(0));
+        filmService.deleteLike(films.get(0), users.get(0));
+        assertThrows(NotFoundException.class, () -> filmService.like(films.get(0) + 1000, users.get(0)));
+        assertThrows(NotFoundException.class, () -> filmService.deleteLike(films.get(0), users.get(0) + 1000));
+        assertEquals(4, likeBuffer.getQueueDepth());
+        assertEquals(1, likeBuffer.getCoalescedCount());
+        assertEquals(List.of(films.get(0), films.get(1), films.get(2)), popularIds());
+
+        likeBuffer.flush();
+        assertEquals(0, likeBuffer.getQueueDepth());
+        assertEquals(3, likeBuffer.getFlushedCount());
+        assertEquals(1, likeBuffer.getDiscardedCount());
+        assertEquals(List.of(films.get(2), films.get(1), films.get(0)), popularIds());
+        assertEquals(2, likesIndex.likeCount(films.get(2)));
+
+        for (int i = 0; i < 6; i++) {
+            filmService.like(films.get(0), users.get(i));
+        }
+        assertThrows(ServiceUnavailableException.class, () -> filmService.like(films.get(0), users.get(6)));
+        assertEquals(1, likeBuffer.getRejectedCount());
+        likeBuffer.flush();
+        filmService.like(films.get(0), users.get(6));
+        assertEquals(1, likeBuffer.getQueueDepth());
+    }
+
+    @Test
+    public void failedFlushIsRequeuedBehindNewerChanges() {
+        AtomicInteger failures = new AtomicInteger(1);
+        AtomicReference<LikeWriteBehindBuffer> buffer = new AtomicReference<>();
+        InMemoryFilmStorage storage = new InMemoryFilmStorage() {
+            @Override
+            public List<Like> applyLikes(List<Like> added, List<Like> removed) {
+                if (failures.getAndDecrement() > 0) {
+                    buffer.get().deleteLike(added.get(1).getFilmId(), 1);
+                    throw new IllegalStateException("database is down");
+                }
+                return super.applyLikes(added, removed);
+            }
+        };
+        int first = storage.createFilm(film("buffered" + 10)).getId();
+        int second = storage.createFilm(film("buffered" + 11)).getId();
+        buffer.set(buffer(storage));
+        buffer.get().like(first, 1);
+        buffer.get().like(second, 1);
+
+        buffer.get().flush();
+        assertEquals(2, buffer.get().getQueueDepth());
+        buffer.get().scheduledFlush();
+        assertEquals(2, buffer.get().getQueueDepth());
+        buffer.get().flush();
+        assertEquals(0, buffer.get().getQueueDepth());
+        assertEquals(1, storage.getFilm(first).getLikes());
+        assertEquals(0, storage.getFilm(second).getLikes());
+    }
+
+    @Test
+    public void unlikeThenLikeWithoutStoredLikeKeepsTheLike() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        int filmId = storage.createFilm(film("buffered" + 20)).getId();
+        LikeWriteBehindBuffer buffer = buffer(storage);
+        buffer.deleteLike(filmId, 1);
+        buffer.like(filmId, 1);
+        assertEquals(1, buffer.getQueueDepth());
+        assertEquals(1, buffer.getCoalescedCount());
+
+        buffer.flush();
+        assertEquals(1, storage.getFilm(filmId).getLikes());
+    }
+
+    @Test
+    public void likeThenUnlikeWithStoredLikeRemovesTheLike() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        int filmId = storage.createFilm(film("buffered" + 21)).getId();
+        storage.like(filmId, 1);
+        LikeWriteBehindBuffer buffer = buffer(storage);
+        buffer.like(filmId, 1);
+        buffer.deleteLike(filmId, 1);
+        assertEquals(1, buffer.getQueueDepth());
+        assertEquals(1, buffer.getCoalescedCount());
+
+        buffer.flush();
+        assertEquals(0, storage.getFilm(filmId).getLikes());
+    }
+
+    private static LikeWriteBehindBuffer buffer(InMemoryFilmStorage storage) {
+        return new LikeWriteBehindBuffer(storage, new LikesIndex(storage),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class),
+                10, 10, 1000, 60_000, 60_000, LikeWriteBehindBuffer.Durability.ASYNC);
+    }
+
+    private List<Integer> popularIds() {
+        return filmService.getPopularFilms(10).stream().map(Film::getId).collect(Collectors.toList());
+    }
+}
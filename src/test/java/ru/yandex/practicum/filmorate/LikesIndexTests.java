@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikesIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static ru.yandex.practicum.filmorate.TestData.film;
+
+public class LikesIndexTests {
+    private static final int FILMS = 40;
+    private static final int USERS = 80;
+    private static final int NEIGHBOURS = 50;
+
+    @Test
+    public void recommendationsMatchNaiveScoringUnderRandomUpdates() {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        for (int i = 1; i <= FILMS; i++) {
+            filmStorage.createFilm(film("film" + i));
+        }
+        Map<Integer, Set<Integer>> expected = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 800; i++) {
+            int filmId = 1 + random.nextInt(FILMS);
+            int userId = 1 + random.nextInt(USERS);
+            filmStorage.like(filmId, userId);
+            expected.computeIfAbsent(userId, k -> new TreeSet<>()).add(filmId);
+        }
+        LikesIndex index = new LikesIndex(filmStorage);
+        index.rebuild();
+        for (int i = 0; i < 2000; i++) {
+            int filmId = 1 + random.nextInt(FILMS);
+            int userId = 1 + random.nextInt(USERS);
+            int operation = random.nextInt(100);
+            if (operation < 60) {
+                index.like(filmId, userId);
+                expected.computeIfAbsent(userId, k -> new TreeSet<>()).add(filmId);
+            } else if (operation < 97) {
+                index.deleteLike(filmId, userId);
+                if (expected.containsKey(userId)) {
+                    expected.get(userId).remove(filmId);
+                }
+            } else if (operation < 99) {
+                index.deleteUser(userId);
+                expected.remove(userId);
+            } else {
+                index.deleteFilm(filmId);
+                expected.values().forEach(films -> films.remove(filmId));
+            }
+            if (i % 50 == 0) {
+                int user = 1 + random.nextInt(USERS);
+                assertArrayEquals(naiveRecommendations(expected, user, 10), index.recommend(user, 10));
+            }
+        }
+        for (int user = 1; user <= USERS; user++) {
+            assertArrayEquals(naiveRecommendations(expected, user, 5), index.recommend(user, 5));
+        }
+    }
+
+    private int[] naiveRecommendations(Map<Integer, Set<Integer>> likes, int id, int limit) {
+        Set<Integer> mine = likes.getOrDefault(id, Set.of());
+        Map<Integer, Integer> similarity = new HashMap<>();
+        for (Map.Entry<Integer, Set<Integer>> entry : likes.entrySet()) {
+            if (entry.getKey() != id) {
+                int common = (int) entry.getValue().stream().filter(mine::contains).count();
+                if (common > 0) {
+                    similarity.put(entry.getKey(), common);
+                }
+            }
+        }
+        List<Integer> neighbours = new ArrayList<>(similarity.keySet());
+        neighbours.sort((a, b) -> similarity.get(a).equals(similarity.get(b)) ? Integer.compare(a, b)
+                : Integer.compare(similarity.get(b), similarity.get(a)));
+        Map<Integer, Long> scores = new HashMap<>();
+        for (int other : neighbours.subList(0, Math.min(NEIGHBOURS, neighbours.size()))) {
+            for (int filmId : likes.get(other)) {
+                if (!mine.contains(filmId)) {
+                    scores.merge(filmId, (long) similarity.get(other), Long::sum);
+                }
+            }
+        }
+        List<Integer> ranked = new ArrayList<>(scores.keySet());
+        ranked.sort((a, b) -> scores.get(a).equals(scores.get(b)) ? Integer.compare(a, b)
+                : Long.compare(scores.get(b), scores.get(a)));
+        return ranked.stream().limit(limit).mapToInt(Integer::intValue).toArray();
+    }
+}
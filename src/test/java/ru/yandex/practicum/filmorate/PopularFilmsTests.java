@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.storage.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.PopularFilmsIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.genre;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+public class PopularFilmsTests extends FilmorateSpringTests {
+    private static final Integer[] YEARS = {null, 1999, 2000, 2001};
+    private static final Integer[] GENRES = {null, 1, 2, 3, 4, 5, 6};
+
+    @Autowired
+    private FilmDbStorage filmStorage;
+    @Autowired
+    private PopularFilmsIndex popularIndex;
+
+    @Test
+    public void filteredPopularFilmsMatchQuery() throws InterruptedException {
+        Random random = new Random(3);
+        List<Integer> films = new ArrayList<>();
+        List<Integer> users = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            films.add(filmService.createFilm(createFilm(i, 1999 + random.nextInt(3), 1 + random.nextInt(6),
+                    1 + random.nextInt(6))).getId());
+        }
+        for (int i = 0; i < 10; i++) {
+            users.add(userService.createUser(user("popular" + i)).getId());
+        }
+        Set<List<Integer>> likes = new HashSet<>();
+        for (int i = 0; i < 120; i++) {
+            List<Integer> like = List.of(films.get(random.nextInt(films.size())), users.get(random.nextInt(users.size())));
+            if (likes.add(like)) {
+                filmService.like(like.get(0), like.get(1));
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            filmService.deleteLike(films.get(random.nextInt(films.size())), users.get(random.nextInt(users.size())));
+        }
+        Film updated = filmService.getFilm(films.get(0));
+        updated.setGenres(List.of(genre(6)));
+        updated.setReleaseDate(LocalDate.of(2001, 6, 1));
+        filmService.updateFilm(updated);
+        filmService.deleteFilm(films.get(1));
+        userService.deleteUser(users.get(0));
+
+        for (int i = 0; i < 50 && !popularIndex.isReady(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(popularIndex.isReady());
+        for (Integer year : YEARS) {
+            for (Integer genreId : GENRES) {
+                assertEquals(toIds(filmStorage.getPopularFilms(5, genreId, year)),
+                        toIds(filmService.getPopularFilms(5, genreId, year)));
+            }
+        }
+        assertEquals(List.of(), filmService.getPopularFilms(10, null, 1950));
+        assertThrows(NotFoundException.class, () -> filmService.getPopularFilms(10, 100, null));
+    }
+
+    private List<Integer> toIds(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+
+    private Film createFilm(int id, int year, int... genres) {
+        Film film = film("popular" + id, Arrays.stream(genres).distinct().toArray());
+        film.setReleaseDate(LocalDate.of(year, 3, 1));
+        return film;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+public class SchemaIndexTests {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void filmQueriesUseIndexes() {
+        assertUsesIndex("SELECT film_id FROM Films ORDER BY rate DESC, film_id LIMIT 10", "FILMS_RATE_IDX");
+        assertUsesIndex("SELECT EXISTS (SELECT 1 FROM Films WHERE film_id = 1)");
+        assertUsesIndex("SELECT genre_id FROM Film_Genre WHERE film_id = 1");
+        assertUsesIndex("SELECT 1 FROM Film_Genre fg WHERE fg.film_id = 1 AND fg.genre_id = 1");
+    }
+
+    @Test
+    public void likeQueriesUseIndexes() {
+        assertUsesIndex("DELETE FROM Likes WHERE film_id = 1 AND user_id = 1");
+        assertUsesIndex("DELETE FROM Likes WHERE film_id = 1");
+        assertUsesIndex("UPDATE Films SET rate = rate - 1 "
+                + "WHERE film_id IN (SELECT film_id FROM Likes WHERE user_id = 1)", "LIKES_USER_ID_IDX");
+    }
+
+    @Test
+    public void friendQueriesUseIndexes() {
+        assertUsesIndex("SELECT friend_id FROM Friends WHERE user_id = 1");
+        assertUsesIndex("SELECT status FROM Friends WHERE user_id = 1 AND friend_id = 2");
+        assertUsesIndex("SELECT EXISTS (SELECT 1 FROM Users WHERE user_id = 1)");
+    }
+
+    private void assertUsesIndex(String sqlQuery) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sqlQuery, String.class);
+        assertThat(plan).as(sqlQuery).doesNotContain("tableScan").containsPattern("/\\* PUBLIC\\.\\w+: ");
+    }
+
+    private void assertUsesIndex(String sqlQuery, String index) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sqlQuery, String.class);
+        assertThat(plan).as(sqlQuery).containsIgnoringCase("PUBLIC." + index);
+    }
+}
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class StorageMetricsTests extends FilmorateSpringTests {
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    public void storageCallsAreTimedAndExported() throws Exception {
+        long notFound = registry.find("filmorate.storage")
+                .tags("storage", "film", "method", "getFilm", "exception", "NotFoundException")
+                .timers().stream().mapToLong(Timer::count).sum();
+        assertThrows(NotFoundException.class, () -> filmService.getFilm(12345));
+        assertEquals(6, filmService.getGenres().size());
+
+        assertEquals(notFound + 1, registry.get("filmorate.storage")
+                .tags("storage", "film", "method", "getFilm", "exception", "NotFoundException")
+                .timer().count());
+        assertEquals(6.0, registry.get("filmorate.storage.rows")
+                .tags("storage", "film", "method", "getGenres")
+                .summary().max());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "filmorate_storage_seconds_bucket{exception=\"NotFoundException\",method=\"getFilm\"")));
+    }
+}
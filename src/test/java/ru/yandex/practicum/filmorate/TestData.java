@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate;
+
+import ru.yandex.practicum.filmorate.model.film.Film;
+import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.model.film.Mpa;
+import ru.yandex.practicum.filmorate.model.user.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+final class TestData {
+    private TestData() {
+    }
+
+    static Film film(String name, int... genreIds) {
+        Mpa mpa = new Mpa();
+        mpa.setId(1);
+        List<Genre> genres = new ArrayList<>();
+        for (int genreId : genreIds) {
+            genres.add(genre(genreId));
+        }
+        return Film.builder()
+                .name(name)
+                .description("description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(mpa)
+                .genres(genres)
+                .build();
+    }
+
+    static Genre genre(int id) {
+        Genre genre = new Genre();
+        genre.setId(id);
+        return genre;
+    }
+
+    static User user(String login) {
+        return User.builder()
+                .login(login)
+                .email(login + "@mail.ru")
+                .name(login)
+                .birthday(LocalDate.of(2000, 1, 1)).build();
+    }
+}
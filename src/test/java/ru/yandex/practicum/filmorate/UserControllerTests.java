@@ -4,10 +4,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.yandex.practicum.filmorate.controllers.UserController;
 import ru.yandex.practicum.filmorate.model.user.User;
 
@@ -16,10 +18,12 @@ import java.time.LocalDate;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureTestDatabase
 public class UserControllerTests {
     @Autowired
     private MockMvc mockMvc;
@@ -51,6 +55,30 @@ public class UserControllerTests {
     }
 
 
+    @Test
+    public void getUsersPage() throws Exception {
+        User[] users = {createUser(1), createUser(2), createUser(3)};
+        for (User user : users) {
+            mockMvc.perform(post("/users")
+                    .content(objectMapper.writeValueAsString(user))
+                    .contentType(MediaType.APPLICATION_JSON)
+            );
+        }
+        int firstId = getUsersId(0);
+        mockMvc.perform(get("/users?afterId=" + firstId + "&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].email").value("user2@mail.ru"));
+
+        MvcResult result = mockMvc.perform(get("/users/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[2].login").value("login3"));
+    }
+
     private int getUsersId(int index) {
         return userController.getAllUsers().size() == 0 ? 1 : userController.getAllUsers().get(index).getId();
     }
@@ -47,3 +47,5 @@ CREATE TABLE IF NOT EXISTS Friends (
 
 
 
+insert into Mpa (mpa_name) values ('G'), ('PG'), ('PG-13'), ('R'), ('NC-17');
+insert into Genres (name) values ('Комедия'), ('Драма'), ('Мультфильм'), ('Триллер'), ('Документальный'), ('Боевик');